@@ -0,0 +1,65 @@
+package com.example.reactive.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/** Latency histogram (microseconds, from intended send time) and outcome counts for one endpoint. */
+final class EndpointStats {
+
+    private static final long MAX_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    private final Recorder recorder = new Recorder(MAX_TRACKABLE_MICROS, 3);
+    private final Map<Integer, LongAdder> statuses = new ConcurrentSkipListMap<>();
+    private final LongAdder failures = new LongAdder();
+    private final AtomicLong recording = new AtomicLong();
+
+    void record(long intendedNanos, int status) {
+        if (recording.get() == 0) return;
+        recorder.recordValue(Math.min(MAX_TRACKABLE_MICROS, (System.nanoTime() - intendedNanos) / 1000));
+        statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+    }
+
+    /** No response at all (connection error, timeout). */
+    void recordFailure() {
+        if (recording.get() != 0) failures.increment();
+    }
+
+    /** Drops anything recorded so far (the warm-up) and starts counting. */
+    void start() {
+        recorder.reset();
+        statuses.clear();
+        failures.reset();
+        recording.set(1);
+    }
+
+    Map<String, Object> report(double seconds) {
+        Histogram h = recorder.getIntervalHistogram();
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("count", h.getTotalCount());
+        out.put("throughput", h.getTotalCount() / seconds);
+        out.put("failures", failures.sum());
+        Map<String, Long> byStatus = new LinkedHashMap<>();
+        statuses.forEach((status, n) -> byStatus.put(String.valueOf(status), n.sum()));
+        out.put("statuses", byStatus);
+        Map<String, Double> latency = new LinkedHashMap<>();
+        latency.put("mean", h.getMean() / 1000.0);
+        latency.put("p50", millis(h, 50));
+        latency.put("p90", millis(h, 90));
+        latency.put("p99", millis(h, 99));
+        latency.put("p999", millis(h, 99.9));
+        latency.put("max", h.getMaxValue() / 1000.0);
+        out.put("latencyMillis", latency);
+        return out;
+    }
+
+    private static double millis(Histogram h, double percentile) {
+        return h.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
@@ -0,0 +1,294 @@
+package com.example.reactive.loadtest;
+
+import com.example.reactive.ReactiveSecurityApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * End-to-end load test: boots the application in-process on a random port with its own in-memory
+ * database, seeds users, then drives a weighted mix of authenticated requests at a fixed arrival rate.
+ * <p>
+ * Latency is measured from when a request was <em>scheduled</em> to be sent, not when it actually went
+ * out, so a stalled server shows up in the percentiles instead of silently lowering the request rate
+ * (coordinated omission). Run with {@code mvn -Ploadtest verify}; see the profile in the pom for knobs.
+ * <p>
+ * With {@code loadtest.fail-on-blocking} the app runs with {@code diagnostics.blocking} on, and the run fails
+ * if any request blocked an event loop, naming the route and the call.
+ */
+public final class LoadTest {
+
+    private static final String ADMIN_USERNAME = "admin";
+    private static final String ADMIN_PASSWORD = "password";
+    private static final String USER_PASSWORD = "loadtest-password";
+
+    private final LoadTestConfig config;
+    private final MeterRegistry appMetrics;
+    private final WebClient client;
+    private final Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+    private final List<VirtualUser> users = new ArrayList<>();
+    private String adminToken;
+
+    private record VirtualUser(long id, String username, String token) {}
+
+    private record Endpoint(String name, Function<VirtualUser, WebClient.RequestHeadersSpec<?>> request,
+                            EndpointStats stats) {}
+
+    private LoadTest(LoadTestConfig config, int port, MeterRegistry appMetrics) {
+        this.config = config;
+        this.appMetrics = appMetrics;
+        var connections = ConnectionProvider.builder("loadtest")
+            .maxConnections(config.maxInFlight())
+            .pendingAcquireMaxCount(-1)
+            .build();
+        this.client = WebClient.builder()
+            .baseUrl("http://localhost:" + port)
+            .clientConnector(new ReactorClientHttpConnector(
+                HttpClient.create(connections)))
+            .build();
+
+        endpoint("login", u -> client.post().uri("/api/auth/login")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(Map.of("username", u.username(), "password", USER_PASSWORD)));
+        endpoint("badlogin", u -> client.post().uri("/api/auth/login")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(Map.of("username", u.username(), "password", "not-" + USER_PASSWORD)));
+        endpoint("profile", u -> client.get().uri("/api/user/profile")
+            .header(HttpHeaders.AUTHORIZATION, "Bearer " + u.token()));
+        endpoint("user", u -> client.get().uri("/api/user/{id}", u.id())
+            .header(HttpHeaders.AUTHORIZATION, "Bearer " + u.token()));
+        endpoint("admin", u -> client.get().uri("/api/admin/users?size=20")
+            .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken));
+    }
+
+    private void endpoint(String name, Function<VirtualUser, WebClient.RequestHeadersSpec<?>> request) {
+        endpoints.put(name, new Endpoint(name, request, new EndpointStats()));
+    }
+
+    public static void main(String[] args) throws IOException {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        ConfigurableApplicationContext app = startApplication(config, args);
+        try {
+            int port = Integer.parseInt(app.getEnvironment().getRequiredProperty("local.server.port"));
+            new LoadTest(config, port, app.getBean(MeterRegistry.class)).run();
+        } finally {
+            app.close();
+        }
+    }
+
+    private static ConfigurableApplicationContext startApplication(LoadTestConfig config, String[] args) {
+        List<String> appArgs = new ArrayList<>(List.of(
+            "--server.port=0",
+            "--spring.r2dbc.url=r2dbc:h2:mem:///loadtest-" + UUID.randomUUID()
+                + "?options=DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+            // Only failed logins are throttled, but badlogin would soon be answered with 429s instead of bcrypt
+            "--security.login-throttle.enabled=false",
+            "--logging.level.root=WARN",
+            "--logging.level.org.springframework.security=WARN",
+            "--logging.level.org.springframework.web.reactive=WARN",
+            "--logging.level.reactor.netty.http.server=WARN"));
+        if (config.failOnBlocking()) appArgs.add("--diagnostics.blocking.enabled=true");
+        // Anything on the command line (e.g. --jwt.verifier=jjwt) overrides the defaults above
+        appArgs.addAll(List.of(args));
+        return SpringApplication.run(ReactiveSecurityApplication.class, appArgs.toArray(String[]::new));
+    }
+
+    private void run() throws IOException {
+        for (String name : config.mix().keySet()) {
+            if (!endpoints.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown endpoint in loadtest.mix: " + name
+                    + " (known: " + endpoints.keySet() + ")");
+            }
+        }
+        seed();
+
+        System.out.printf("Warming up for %s at %d req/s...%n", config.warmup(), config.rate());
+        drive(config.warmup());
+        endpoints.values().forEach(e -> e.stats().start());
+        System.out.printf("Measuring for %s at %d req/s...%n", config.duration(), config.rate());
+        long started = System.nanoTime();
+        drive(config.duration());
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        report(seconds);
+    }
+
+    /** Signs up and logs in the virtual users; registration is bcrypt-bound, so keep it modest. */
+    private void seed() {
+        String run = Long.toString(System.currentTimeMillis() % 100_000, 36);
+        adminToken = login(ADMIN_USERNAME, ADMIN_PASSWORD).block();
+        Flux.range(0, config.users())
+            .flatMap(i -> {
+                String username = "lt" + run + "u" + i;
+                return client.post().uri("/api/auth/signup")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(Map.of("username", username, "email", username + "@loadtest.local",
+                        "password", USER_PASSWORD))
+                    .retrieve()
+                    .bodyToMono(JsonNode.class)
+                    .flatMap(created -> login(username, USER_PASSWORD)
+                        .map(token -> new VirtualUser(created.get("id").asLong(), username, token)));
+            }, 4)
+            .doOnNext(users::add)
+            .blockLast();
+        System.out.printf("Seeded %d users%n", users.size());
+    }
+
+    private Mono<String> login(String username, String password) {
+        return client.post().uri("/api/auth/login")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(Map.of("username", username, "password", password))
+            .retrieve()
+            .bodyToMono(JsonNode.class)
+            .map(body -> body.get("token").asText());
+    }
+
+    /**
+     * Open-model load: a 1ms tick releases however many arrivals are due by now, each stamped with its
+     * intended send time. Arrivals beyond {@code maxInFlight} wait in the buffer, and that wait is counted.
+     */
+    private void drive(Duration length) {
+        long total = (long) (length.toNanos() / 1e9 * config.rate());
+        if (total == 0) return;
+        double intervalNanos = 1e9 / config.rate();
+        long start = System.nanoTime();
+        Endpoint[] picks = weightedPicks();
+
+        Flux.interval(Duration.ofMillis(1), Schedulers.single())
+            .scan(new long[] {0, 0}, (sent, tick) -> {
+                long due = Math.min(total, (long) ((System.nanoTime() - start) / intervalNanos) + 1);
+                return new long[] {sent[1], due};
+            })
+            .concatMapIterable(window -> {
+                List<Long> arrivals = new ArrayList<>((int) (window[1] - window[0]));
+                for (long n = window[0]; n < window[1]; n++) arrivals.add(start + (long) (n * intervalNanos));
+                return arrivals;
+            })
+            .take(total)
+            .onBackpressureBuffer()
+            .flatMap(intended -> send(picks[ThreadLocalRandom.current().nextInt(picks.length)], intended),
+                config.maxInFlight())
+            .blockLast();
+    }
+
+    private Endpoint[] weightedPicks() {
+        List<Endpoint> picks = new ArrayList<>();
+        config.mix().forEach((name, weight) -> {
+            for (int i = 0; i < weight; i++) picks.add(endpoints.get(name));
+        });
+        return picks.toArray(Endpoint[]::new);
+    }
+
+    private Mono<Void> send(Endpoint endpoint, long intendedNanos) {
+        VirtualUser user = users.get(ThreadLocalRandom.current().nextInt(users.size()));
+        return endpoint.request().apply(user)
+            .exchangeToMono(response -> response.releaseBody()
+                .doOnTerminate(() -> endpoint.stats().record(intendedNanos, response.statusCode().value())))
+            .onErrorResume(e -> {
+                endpoint.stats().recordFailure();
+                return Mono.empty();
+            });
+    }
+
+    private void report(double seconds) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("rate", config.rate());
+        settings.put("warmup", config.warmup().toString());
+        settings.put("duration", config.duration().toString());
+        settings.put("users", config.users());
+        settings.put("maxInFlight", config.maxInFlight());
+        settings.put("mix", config.mix());
+        report.put("config", settings);
+        report.put("measuredSeconds", seconds);
+        Map<String, Object> results = new LinkedHashMap<>();
+        for (Endpoint e : endpoints.values()) {
+            if (config.mix().containsKey(e.name())) results.put(e.name(), e.stats().report(seconds));
+        }
+        report.put("endpoints", results);
+        List<Map<String, Object>> blocking = config.failOnBlocking() ? blockingCalls() : List.of();
+        if (config.failOnBlocking()) {
+            report.put("blockingCalls", blocking);
+            report.put("eventLoopStalls", eventLoopStalls());
+        }
+
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        Files.createDirectories(config.report().toAbsolutePath().getParent());
+        mapper.writeValue(config.report().toFile(), report);
+
+        System.out.printf("%n%-8s %8s %9s %8s %8s %8s %8s %8s  %s%n",
+            "endpoint", "count", "req/s", "p50", "p90", "p99", "p99.9", "max", "statuses");
+        results.forEach((name, r) -> {
+            @SuppressWarnings("unchecked") var stats = (Map<String, Object>) r;
+            @SuppressWarnings("unchecked") var lat = (Map<String, Double>) stats.get("latencyMillis");
+            System.out.printf("%-8s %8d %9.1f %8.2f %8.2f %8.2f %8.2f %8.2f  %s failures=%d%n",
+                name, stats.get("count"), stats.get("throughput"), lat.get("p50"), lat.get("p90"),
+                lat.get("p99"), lat.get("p999"), lat.get("max"), stats.get("statuses"), stats.get("failures"));
+        });
+        System.out.println("Latencies in ms from intended send time. Report: " + config.report().toAbsolutePath());
+
+        if (!blocking.isEmpty()) {
+            System.out.printf("%nBlocking calls on event loops:%n");
+            blocking.forEach(call -> System.out.printf("%6d  %-32s %-40s %s%n", call.get("count"), call.get("route"),
+                call.get("call"), call.get("caller")));
+            throw new IllegalStateException(blocking.size() + " blocking call sites on event loops (see above)");
+        }
+    }
+
+    /** Everything counted since startup, seeding included: any of it is a request blocking a loop. */
+    private List<Map<String, Object>> blockingCalls() {
+        List<Map<String, Object>> calls = new ArrayList<>();
+        for (Counter counter : appMetrics.find("eventloop.blocking.calls").counters()) {
+            Map<String, Object> call = tags(counter.getId());
+            call.put("count", (long) counter.count());
+            calls.add(call);
+        }
+        return calls;
+    }
+
+    /** Reported, not failed on: the first requests stall on class loading no matter what. */
+    private List<Map<String, Object>> eventLoopStalls() {
+        List<Map<String, Object>> stalls = new ArrayList<>();
+        for (Timer timer : appMetrics.find("eventloop.stalls").timers()) {
+            Map<String, Object> stall = tags(timer.getId());
+            stall.put("count", timer.count());
+            stall.put("maxMillis", timer.max(TimeUnit.MILLISECONDS));
+            stall.put("totalMillis", timer.totalTime(TimeUnit.MILLISECONDS));
+            stalls.add(stall);
+        }
+        return stalls;
+    }
+
+    private static Map<String, Object> tags(Meter.Id id) {
+        Map<String, Object> tags = new LinkedHashMap<>();
+        for (String key : List.of("route", "call", "caller")) tags.put(key, id.getTag(key));
+        return tags;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.reactive.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Harness settings, read from {@code loadtest.*} system properties.
+ *
+ * @param rate        requests per second, spread evenly (open model: arrivals don't wait for responses)
+ * @param warmup      time to run before recording
+ * @param duration    recorded time
+ * @param users       seeded users the requests are spread over
+ * @param maxInFlight cap on outstanding requests; arrivals beyond it queue and their wait counts as latency
+ * @param mix         relative weight per endpoint name
+ * @param report      where the JSON report is written
+ * @param failOnBlocking run the app with blocking diagnostics on and fail if any event loop was blocked
+ */
+record LoadTestConfig(int rate, Duration warmup, Duration duration, int users, int maxInFlight,
+                      Map<String, Integer> mix, Path report, boolean failOnBlocking) {
+
+    static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig(
+            Integer.getInteger("loadtest.rate", 100),
+            Duration.parse(System.getProperty("loadtest.warmup", "PT10S")),
+            Duration.parse(System.getProperty("loadtest.duration", "PT30S")),
+            Integer.getInteger("loadtest.users", 50),
+            Integer.getInteger("loadtest.max-in-flight", 1000),
+            parseMix(System.getProperty("loadtest.mix", "login=1,profile=12,user=4,admin=3")),
+            Path.of(System.getProperty("loadtest.report", "target/loadtest-report.json")),
+            Boolean.getBoolean("loadtest.fail-on-blocking"));
+    }
+
+    /** {@code name=weight,...}; names are the endpoints known to {@link LoadTest}. */
+    private static Map<String, Integer> parseMix(String spec) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String part : spec.split(",")) {
+            String[] kv = part.trim().split("=");
+            if (kv.length != 2) throw new IllegalArgumentException("Bad loadtest.mix entry: " + part);
+            int weight = Integer.parseInt(kv[1].trim());
+            if (weight > 0) mix.put(kv[0].trim(), weight);
+        }
+        if (mix.isEmpty()) throw new IllegalArgumentException("loadtest.mix has no positive weights");
+        return mix;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.reactive.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Opt-in event-loop diagnostics: BlockHound plus a task-latency probe. Meant for load tests and staging;
+ * on JDK 13+ the JVM must be started with {@code -XX:+AllowRedefinitionToAddDeleteMethods}.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "diagnostics.blocking")
+public class BlockingDiagnosticsProperties {
+    private boolean enabled = false;
+    /** Fail the blocking call with BlockHound's error instead of only reporting it. */
+    private boolean strict = false;
+    /** How often each event loop is sent a probe task. */
+    private Duration probeInterval = Duration.ofMillis(100);
+    /** Probe lag above which the loop counts as stalled. */
+    private Duration stallThreshold = Duration.ofMillis(50);
+    /** At most one warning per route and call site per interval; the rest are only counted. */
+    private Duration logInterval = Duration.ofSeconds(10);
+}
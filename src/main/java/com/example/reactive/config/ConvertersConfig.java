@@ -1,5 +1,7 @@
 package com.example.reactive.config;
 
+import com.example.reactive.repository.RoleCatalog;
+import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.convert.converter.Converter;
@@ -8,39 +10,40 @@ import org.springframework.data.convert.ReadingConverter;
 import org.springframework.data.convert.WritingConverter;
 import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
 
-import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 @Configuration
 public class ConvertersConfig {
 
+    // User.roles <-> users.role_mask; bit n is the role with id n in the roles table (see RoleCatalog)
+
     @ReadingConverter
-    static class RolesReadConverter implements Converter<String, Set<String>> {
+    @RequiredArgsConstructor
+    static class RoleMaskReadConverter implements Converter<Long, Set<String>> {
+        private final RoleCatalog roleCatalog;
+
         @Override
-        public Set<String> convert(String source) {
-            if (source == null || source.isBlank()) return Set.of();
-            return Arrays.stream(source.split(","))
-                    .map(String::trim)
-                    .filter(s -> !s.isEmpty())
-                    .collect(Collectors.toSet());
+        public Set<String> convert(Long source) {
+            return roleCatalog.rolesOf(source);
         }
     }
 
     @WritingConverter
-    static class RolesWriteConverter implements Converter<Set<String>, String> {
+    @RequiredArgsConstructor
+    static class RoleMaskWriteConverter implements Converter<Set<String>, Long> {
+        private final RoleCatalog roleCatalog;
+
         @Override
-        public String convert(Set<String> source) {
-            if (source == null || source.isEmpty()) return "";
-            return String.join(",", source);
+        public Long convert(Set<String> source) {
+            return roleCatalog.maskOf(source);
         }
     }
 
     @Bean
-    public R2dbcCustomConversions r2dbcCustomConversions() {
+    public R2dbcCustomConversions r2dbcCustomConversions(RoleCatalog roleCatalog) {
         return new R2dbcCustomConversions(StoreConversions.NONE, List.of(
-                new RolesReadConverter(), new RolesWriteConverter()
+                new RoleMaskReadConverter(roleCatalog), new RoleMaskWriteConverter(roleCatalog)
         ));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,53 @@
+package com.example.reactive.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+/**
+ * Builds the r2dbc-pool {@link ConnectionPool} from {@code spring.r2dbc.*} ourselves instead of
+ * leaving it to auto-configuration, so it can be warmed up, metered and made to shed load.
+ */
+@Slf4j
+@Configuration
+public class DatabasePoolConfig {
+
+    @Bean
+    public ConnectionFactory connectionFactory(R2dbcProperties r2dbc, DatabasePoolProperties props,
+                                                      MeterRegistry meterRegistry) {
+        ConnectionFactory target = ConnectionFactoryBuilder.withUrl(r2dbc.getUrl())
+            .username(r2dbc.getUsername())
+            .password(r2dbc.getPassword())
+            .build();
+        R2dbcProperties.Pool pool = r2dbc.getPool();
+        var config = ConnectionPoolConfiguration.builder(target)
+            .name("r2dbc")
+            .initialSize(pool.getInitialSize())
+            .minIdle(pool.getMinIdle())
+            .maxSize(pool.getMaxSize())
+            .maxIdleTime(pool.getMaxIdleTime())
+            .maxLifeTime(pool.getMaxLifeTime())
+            .maxAcquireTime(pool.getMaxAcquireTime())
+            .acquireRetry(props.getAcquireRetry())
+            .maxCreateConnectionTime(pool.getMaxCreateConnectionTime())
+            .validationDepth(pool.getValidationDepth())
+            .customizer(builder -> builder.maxPendingAcquire(
+                props.getMaxPendingAcquires() < 0 ? Integer.MAX_VALUE : props.getMaxPendingAcquires()));
+        if (StringUtils.hasText(pool.getValidationQuery())) {
+            config.validationQuery(pool.getValidationQuery());
+        }
+        var connectionPool = new ConnectionPool(config.build());
+        if (props.isWarmup()) {
+            Integer opened = connectionPool.warmup().block();
+            log.info("Connection pool warmed up with {} connections (max {})", opened, pool.getMaxSize());
+        }
+        return new MeteredConnectionFactory(connectionPool, props.getRetryAfter(), meterRegistry);
+    }
+}
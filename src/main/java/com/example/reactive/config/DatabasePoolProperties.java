@@ -0,0 +1,25 @@
+package com.example.reactive.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/** Pool behaviour on top of the sizes and timeouts in {@code spring.r2dbc.pool.*}. */
+@Data
+@Component
+@ConfigurationProperties(prefix = "database.pool")
+public class DatabasePoolProperties {
+    /** Open {@code spring.r2dbc.pool.initial-size} connections before the app takes traffic. */
+    private boolean warmup = true;
+    /**
+     * Callers allowed to wait for a connection; beyond that acquisition fails at once.
+     * 0 = only take idle connections, negative = unbounded.
+     */
+    private int maxPendingAcquires = 64;
+    /** Acquire retries; each one waits up to max-acquire-time again, so keep it at 0 to fail fast. */
+    private int acquireRetry = 0;
+    /** Retry-After sent with the 503 when a connection can't be had in time. */
+    private Duration retryAfter = Duration.ofSeconds(1);
+}
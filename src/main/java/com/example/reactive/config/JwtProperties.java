@@ -3,6 +3,9 @@ package com.example.reactive.config;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
 
 @Data
 @Component
@@ -12,4 +15,45 @@ public class JwtProperties {
     private Long expiration;
     private Long refreshExpiration;
     private String issuer;
+    private Verifier verifier = Verifier.JJWT;
+    private Cache cache = new Cache();
+    private Revocation revocation = new Revocation();
+    private KeyRing keyRing = new KeyRing();
+
+    /** Token verification engine: the JJWT parser, or the allocation-light HS256 path (see HmacTokenVerifier). */
+    public enum Verifier { JJWT, HMAC }
+
+    /** Limits for the verified-claims cache (see JwtClaimsCache). */
+    @Data
+    public static class Cache {
+        private boolean enabled = true;
+        private long maxEntries = 100_000;
+        private DataSize maxMemory = DataSize.ofMegabytes(64);
+    }
+
+    /**
+     * Signing/verification keys selected by the token's {@code kid} (see JwtKeyRing). Without a file,
+     * {@code jwt.secret} alone signs and verifies, as unkeyed HS256.
+     */
+    @Data
+    public static class KeyRing {
+        /** JSON key file; re-read when it changes. */
+        private String file;
+        private Duration reloadInterval = Duration.ofSeconds(10);
+    }
+
+    /** In-memory view of the token_revocations table (see TokenRevocationList). */
+    @Data
+    public static class Revocation {
+        /** How often new rows are pulled from the table, i.e. how long other instances may lag a revocation. */
+        private Duration refreshInterval = Duration.ofSeconds(5);
+        /**
+         * Rows revoked this recently are read again on every refresh, so one whose insert committed after a
+         * row with a higher id is still picked up. Should exceed the slowest revoking insert plus clock skew.
+         */
+        private Duration lateCommitWindow = Duration.ofMinutes(1);
+        /** Bloom filter sizing; it is rebuilt larger if the live entries outgrow this. */
+        private int expectedEntries = 10_000;
+        private double falsePositiveRate = 0.01;
+    }
 }
@@ -0,0 +1,22 @@
+package com.example.reactive.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "security.last-login")
+public class LastLoginProperties {
+    private boolean enabled = true;
+    /** Longest a login waits in memory before it is written. */
+    private Duration flushInterval = Duration.ofSeconds(5);
+    /** Rows per UPDATE batch; this many users waiting also triggers a flush. */
+    private int batchSize = 500;
+    /** Users held in memory at most; logins of further users are dropped until a flush makes room. */
+    private int maxPending = 100_000;
+    /** How long shutdown waits to write out what is still pending. */
+    private Duration shutdownTimeout = Duration.ofSeconds(10);
+}
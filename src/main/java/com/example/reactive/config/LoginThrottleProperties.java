@@ -0,0 +1,40 @@
+package com.example.reactive.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "security.login-throttle")
+public class LoginThrottleProperties {
+    private boolean enabled = true;
+    private Limit username = new Limit(5, Duration.ofMinutes(1));
+    private Limit address = new Limit(30, Duration.ofMinutes(1));
+    /** Upper bound on tracked usernames and on tracked addresses; least recently used buckets go first. */
+    private long maxTrackedKeys = 100_000;
+    /**
+     * Peer addresses of reverse proxies whose {@code X-Forwarded-For} is believed, to find the client address.
+     * Empty: the peer address is the client address, so behind an unlisted proxy every client shares one
+     * address bucket.
+     */
+    private List<String> trustedProxies = List.of();
+
+    /** {@code attempts} per {@code period}, all of which may be spent in a burst. */
+    @Data
+    public static class Limit {
+        private boolean enabled = true;
+        private int attempts;
+        private Duration period;
+
+        public Limit() { }
+
+        public Limit(int attempts, Duration period) {
+            this.attempts = attempts;
+            this.period = period;
+        }
+    }
+}
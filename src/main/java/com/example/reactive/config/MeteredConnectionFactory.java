@@ -0,0 +1,76 @@
+package com.example.reactive.config;
+
+import com.example.reactive.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.R2dbcTimeoutException;
+import io.r2dbc.spi.Wrapped;
+import reactor.core.publisher.Mono;
+import reactor.pool.PoolAcquirePendingLimitException;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The application's {@link ConnectionFactory}: the pool, plus an acquire-latency timer and
+ * translation of acquire timeouts and a full wait queue into {@link ServiceOverloadedException}.
+ * Implements {@link Wrapped} so the actuator still finds the pool for its r2dbc.pool.* gauges.
+ */
+final class MeteredConnectionFactory implements ConnectionFactory, Wrapped<ConnectionPool>, AutoCloseable {
+
+    private final ConnectionPool pool;
+    private final Duration retryAfter;
+    private final Timer acquired;
+    private final Timer timedOut;
+    private final Timer rejected;
+
+    MeteredConnectionFactory(ConnectionPool pool, Duration retryAfter, MeterRegistry meterRegistry) {
+        this.pool = pool;
+        this.retryAfter = retryAfter;
+        this.acquired = acquireTimer(meterRegistry, "success");
+        this.timedOut = acquireTimer(meterRegistry, "timeout");
+        this.rejected = acquireTimer(meterRegistry, "rejected");
+    }
+
+    private static Timer acquireTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("r2dbc.pool.acquire")
+            .description("Time to get a connection from the pool")
+            .tag("outcome", outcome)
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Connection> create() {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return pool.create()
+                .doOnNext(c -> acquired.record(System.nanoTime() - start, TimeUnit.NANOSECONDS))
+                .onErrorMap(e -> e instanceof R2dbcTimeoutException || e instanceof PoolAcquirePendingLimitException,
+                    e -> {
+                        (e instanceof R2dbcTimeoutException ? timedOut : rejected)
+                            .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        return new ServiceOverloadedException("Database connection pool exhausted", retryAfter);
+                    });
+        });
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return pool.getMetadata();
+    }
+
+    @Override
+    public ConnectionPool unwrap() {
+        return pool;
+    }
+
+    @Override
+    public void close() {
+        pool.dispose();
+    }
+}
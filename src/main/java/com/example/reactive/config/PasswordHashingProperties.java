@@ -0,0 +1,19 @@
+package com.example.reactive.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "security.hashing")
+public class PasswordHashingProperties {
+    /** Hashing threads; 0 means one per available CPU. */
+    private int threads = 0;
+    /** Hash requests allowed to wait for a thread before new ones are rejected. */
+    private int queueCapacity = 64;
+    /** Retry-After sent with the 503 when the queue is full. */
+    private Duration retryAfter = Duration.ofSeconds(1);
+}
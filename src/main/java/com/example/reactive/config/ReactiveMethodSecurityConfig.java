@@ -1,9 +1,31 @@
 package com.example.reactive.config;
 
+import com.example.reactive.repository.UserRepository;
+import com.example.reactive.security.OwnsUserAuthorizationManager;
+import com.example.reactive.security.RequiresRoleAuthorizationManager;
+import org.springframework.aop.Advisor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
 import org.springframework.security.config.annotation.method.configuration.EnableReactiveMethodSecurity;
 
 @Configuration
 @EnableReactiveMethodSecurity(useAuthorizationManager = true)
 public class ReactiveMethodSecurityConfig {
+
+    // Static and infrastructure-role so the advisors exist before the beans they proxy
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor requiresRoleAuthorization() {
+        return new RequiresRoleAuthorizationManager().interceptor();
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor ownsUserAuthorization(ObjectProvider<UserRepository> userRepository) {
+        return new OwnsUserAuthorizationManager(userRepository).interceptor();
+    }
 }
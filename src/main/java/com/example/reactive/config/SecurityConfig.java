@@ -2,16 +2,20 @@ package com.example.reactive.config;
 
 import com.example.reactive.security.CustomReactiveAuthorizationManager;
 import com.example.reactive.security.JwtServerAuthenticationConverter;
+import com.example.reactive.security.MeteredAuthorizationManager;
 import com.example.reactive.security.ResourceBasedAuthorizationManager;
+import com.example.reactive.security.RoleRegistry;
+import com.example.reactive.security.RoleSetAuthorizationManager;
+import com.example.reactive.security.RouteAuthorizationTable;
+import com.example.reactive.security.SecurityErrorResponses;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.security.authentication.ReactiveAuthenticationManager;
-import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthenticatedReactiveAuthorizationManager;
 import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
 import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
@@ -22,11 +26,11 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.server.SecurityWebFilterChain;
 import org.springframework.security.web.server.authentication.AuthenticationWebFilter;
 import org.springframework.security.web.server.authentication.ServerAuthenticationConverter;
+import org.springframework.security.web.server.authentication.ServerAuthenticationEntryPointFailureHandler;
 import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.reactive.CorsConfigurationSource;
 import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
-import reactor.core.publisher.Mono;
 
 import java.util.List;
 
@@ -36,9 +40,16 @@ import java.util.List;
 @RequiredArgsConstructor
 public class SecurityConfig {
 
+    private static final RoleSetAuthorizationManager USER_OR_ADMIN =
+            RoleSetAuthorizationManager.anyOf(RoleRegistry.ROLE_USER, RoleRegistry.ROLE_ADMIN);
+    private static final RoleSetAuthorizationManager SPECIAL_SCOPE =
+            RoleSetAuthorizationManager.anyOf(RoleRegistry.SCOPE_SPECIAL);
+
     private final ReactiveAuthenticationManager authenticationManager;
     private final CustomReactiveAuthorizationManager customAuthorizationManager;
     private final ResourceBasedAuthorizationManager resourceBasedAuthorizationManager;
+    private final SecurityErrorResponses securityErrorResponses;
+    private final MeterRegistry meterRegistry;
 
     @Bean
     public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
@@ -49,50 +60,12 @@ public class SecurityConfig {
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
                 .exceptionHandling(exceptions -> exceptions
-                        .authenticationEntryPoint((exchange, ex) -> {
-                            var response = exchange.getResponse();
-                            response.setStatusCode(HttpStatus.UNAUTHORIZED);
-                            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
-                            String body = String.format("{\"error\":\"Unauthorized\",\"message\":\"%s\",\"timestamp\":\"%s\"}",
-                                    ex.getMessage(), java.time.Instant.now());
-                            return response.writeWith(Mono.just(response.bufferFactory().wrap(body.getBytes())));
-                        })
-                        .accessDeniedHandler((exchange, denied) -> {
-                            var response = exchange.getResponse();
-                            response.setStatusCode(HttpStatus.FORBIDDEN);
-                            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
-                            String body = String.format("{\"error\":\"Access Denied\",\"message\":\"%s\",\"timestamp\":\"%s\"}",
-                                    denied.getMessage(), java.time.Instant.now());
-                            return response.writeWith(Mono.just(response.bufferFactory().wrap(body.getBytes())));
-                        })
+                        .authenticationEntryPoint(securityErrorResponses)
+                        .accessDeniedHandler(securityErrorResponses)
                 )
                 .authorizeExchange(exchanges -> exchanges
-                        // Public
-                        .pathMatchers(HttpMethod.OPTIONS).permitAll()
-                        .pathMatchers("/api/auth/**", "/api/public/**", "/actuator/health").permitAll()
-
-                        // Admin
-                        .pathMatchers("/api/admin/**").access(customAuthorizationManager)
-
-                        // User: put the specific route BEFORE the {id} rule
-                        .pathMatchers("/api/user/profile").hasAnyRole("USER","ADMIN")
-
-                        // Resource-based: only match numeric IDs so it won't grab "profile"
-                        .pathMatchers("/api/user/{id:\\d+}/**").access(resourceBasedAuthorizationManager)
-
-                        // Fallback for any other /api/user/** endpoints
-                        .pathMatchers("/api/user/**").hasAnyRole("USER","ADMIN")
-
-                        // Example of inline rule you had
-                        .pathMatchers("/api/special/**").access((authentication, context) ->
-                                authentication.map(auth -> {
-                                    boolean has = auth.getAuthorities().stream()
-                                            .anyMatch(a -> a.getAuthority().equals("SCOPE_special"));
-                                    return new AuthorizationDecision(has);
-                                }).defaultIfEmpty(new AuthorizationDecision(false))
-                        )
-
-                        .anyExchange().authenticated()
+                        .anyExchange().access(authorizationRules(
+                                customAuthorizationManager, resourceBasedAuthorizationManager, meterRegistry).build())
                 )
                 .headers(h -> h
                         .contentSecurityPolicy(csp -> csp.policyDirectives("default-src 'none'"))
@@ -104,17 +77,55 @@ public class SecurityConfig {
                 .build();
     }
 
+    /**
+     * Route rules in match order: the first matching rule decides, as with a {@code pathMatchers} chain.
+     * Static so the route table test and benchmark can build it without an application context.
+     */
+    public static RouteAuthorizationTable.Builder authorizationRules(
+            CustomReactiveAuthorizationManager customAuthorizationManager,
+            ResourceBasedAuthorizationManager resourceBasedAuthorizationManager,
+            MeterRegistry meterRegistry) {
+        return RouteAuthorizationTable.builder()
+                // Public
+                .permitAll(HttpMethod.OPTIONS)
+                .permitAll("/api/auth/**", "/api/public/**", "/actuator/health")
+
+                // Admin
+                .access("/api/admin/**", MeteredAuthorizationManager.of(
+                        "admin", "/api/admin/**", customAuthorizationManager, meterRegistry))
+
+                // User: put the specific route BEFORE the {id} rule
+                .access("/api/user/profile", MeteredAuthorizationManager.of(
+                        "user_or_admin", "/api/user/profile", USER_OR_ADMIN, meterRegistry))
+
+                // Resource-based: only match numeric IDs so it won't grab "profile"
+                .access("/api/user/{id:\\d+}/**", MeteredAuthorizationManager.of(
+                        "resource_owner", "/api/user/{id}/**", resourceBasedAuthorizationManager, meterRegistry))
+
+                // Fallback for any other /api/user/** endpoints
+                .access("/api/user/**", MeteredAuthorizationManager.of(
+                        "user_or_admin", "/api/user/**", USER_OR_ADMIN, meterRegistry))
+
+                // Example of inline rule you had
+                .access("/api/special/**", MeteredAuthorizationManager.of(
+                        "special_scope", "/api/special/**", SPECIAL_SCOPE, meterRegistry))
+
+                .anyExchange(AuthenticatedReactiveAuthorizationManager.authenticated());
+    }
+
     @Bean
     public AuthenticationWebFilter jwtAuthenticationFilter() {
         var filter = new AuthenticationWebFilter(authenticationManager);
         filter.setServerAuthenticationConverter(jwtServerAuthenticationConverter());
         filter.setSecurityContextRepository(NoOpServerSecurityContextRepository.getInstance());
+        // Rejected tokens get the same 401 as a missing one (the default would be an HTTP Basic challenge)
+        filter.setAuthenticationFailureHandler(new ServerAuthenticationEntryPointFailureHandler(securityErrorResponses));
         return filter;
     }
 
     @Bean
     public ServerAuthenticationConverter jwtServerAuthenticationConverter() {
-        return new JwtServerAuthenticationConverter();
+        return new JwtServerAuthenticationConverter(meterRegistry);
     }
 
     @Bean
@@ -129,7 +140,7 @@ public class SecurityConfig {
         configuration.setAllowedOriginPatterns(List.of("http://localhost:[*]", "https://*.example.com"));
         configuration.setAllowedMethods(List.of("GET","POST","PUT","DELETE","PATCH","OPTIONS"));
         configuration.setAllowedHeaders(List.of("*"));
-        configuration.setExposedHeaders(List.of("X-Total-Count","X-Page-Number"));
+        configuration.setExposedHeaders(List.of("X-Total-Count","X-Page-Number","Link"));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
         var source = new UrlBasedCorsConfigurationSource();
@@ -0,0 +1,27 @@
+package com.example.reactive.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "admin.users")
+public class UserAdminProperties {
+    /** Ids applied per UPDATE ... WHERE id IN (...) by bulk operations. */
+    private int bulkChunkSize = 500;
+    /** Default and maximum page size of the admin user listing. */
+    private int pageSize = 50;
+    private int maxPageSize = 500;
+    /** Rows fetched per keyset query when the listing is streamed as NDJSON. */
+    private int streamPageSize = 500;
+    /** Rows per multi-row INSERT during bulk import. */
+    private int importBatchSize = 500;
+    /** Passwords hashed concurrently by one import; 0 means one per CPU. Keep it below the hashing queue. */
+    private int importHashConcurrency = 0;
+    /** How often an import row retries when the hashing pool is saturated, backing off from this delay. */
+    private int importOverloadRetries = 10;
+    private Duration importOverloadBackoff = Duration.ofMillis(50);
+}
@@ -0,0 +1,17 @@
+package com.example.reactive.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "cache.users")
+public class UserCacheProperties {
+    private boolean enabled = true;
+    /** Per index (by id and by username). */
+    private long maxEntries = 10_000;
+    private Duration ttl = Duration.ofMinutes(5);
+}
@@ -0,0 +1,31 @@
+package com.example.reactive.config;
+
+import com.example.reactive.repository.JdbcUserRepository;
+import com.example.reactive.repository.RoleCatalog;
+import com.example.reactive.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Picks the {@code userRepositoryBackend} that CachingUserRepository delegates to, per
+ * {@code database.users.backend}. The rest of the persistence layer stays on R2DBC either way.
+ */
+@Configuration
+public class UserRepositoryBackendConfig {
+
+    @Bean("userRepositoryBackend")
+    @ConditionalOnProperty(name = "database.users.backend", havingValue = "r2dbc", matchIfMissing = true)
+    public UserRepository r2dbcUserRepositoryBackend(@Qualifier("userRepository") UserRepository userRepository) {
+        return userRepository;
+    }
+
+    @Bean(name = "userRepositoryBackend", destroyMethod = "close")
+    @ConditionalOnProperty(name = "database.users.backend", havingValue = "jdbc")
+    public JdbcUserRepository jdbcUserRepositoryBackend(UserRepositoryBackendProperties props, RoleCatalog roleCatalog,
+                                                        DatabasePoolProperties poolProperties, MeterRegistry meterRegistry) {
+        return new JdbcUserRepository(props.getJdbc(), roleCatalog, poolProperties.getRetryAfter(), meterRegistry);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.reactive.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/** Which implementation stores users behind the user cache, and the JDBC pool when it's {@code jdbc}. */
+@Data
+@Component
+@ConfigurationProperties(prefix = "database.users")
+public class UserRepositoryBackendProperties {
+    private Backend backend = Backend.R2DBC;
+    private Jdbc jdbc = new Jdbc();
+
+    /** Spring Data R2DBC, or blocking JDBC on virtual threads (see JdbcUserRepository). */
+    public enum Backend { R2DBC, JDBC }
+
+    @Data
+    public static class Jdbc {
+        /** Should point at the same database as spring.r2dbc.url: everything but users stays on R2DBC. */
+        private String url = "jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+        private String username = "sa";
+        private String password = "";
+        /** Connections, i.e. statements running at once; opened at startup. */
+        private int maxPoolSize = 20;
+        /** How long a statement waits for a connection before failing with a 503. */
+        private Duration connectionTimeout = Duration.ofSeconds(2);
+        /** Statements allowed to wait for a connection; beyond that they fail at once. Negative = unbounded. */
+        private int maxPending = 64;
+    }
+}
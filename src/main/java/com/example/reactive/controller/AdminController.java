@@ -1,32 +1,72 @@
 package com.example.reactive.controller;
 
+import com.example.reactive.model.BulkDisableProgress;
+import com.example.reactive.model.RevokeTokenRequest;
 import com.example.reactive.model.User;
-import com.example.reactive.service.ReactiveSecurityService;
+import com.example.reactive.service.AuthService;
+import com.example.reactive.security.RequiresRole;
 import com.example.reactive.service.UserService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/admin")
+@RequiresRole("ADMIN")
 @RequiredArgsConstructor
 public class AdminController {
 
     private final UserService userService;
-    private final ReactiveSecurityService securityService;
+    private final AuthService authService;
 
+    /**
+     * One keyset page of users ordered by id, starting after the {@code after} cursor.
+     * Sets X-Page-Number (1-based, carried along in the links) and, unless this is the last page, a rel="next"
+     * Link. X-Total-Count costs a full count, so only the first page (no cursor) has it.
+     */
     @GetMapping("/users")
-    @PreAuthorize("@reactiveSecurityService.hasRole('ADMIN')")
-    public Flux<User> getAllUsers() {
-        return userService.findAllUsers();
+    public Mono<ResponseEntity<List<User>>> getAllUsers(@RequestParam(defaultValue = "0") long after,
+                                                        @RequestParam(required = false) Integer size,
+                                                        @RequestParam(defaultValue = "1") long page) {
+        int pageSize = userService.pageSize(size);
+        Mono<Long> total = after == 0 ? userService.countUsers() : Mono.just(-1L);
+        return Mono.zip(userService.findUsersPage(after, pageSize).collectList(), total)
+            .map(result -> {
+                List<User> users = result.getT1();
+                var response = ResponseEntity.ok().header("X-Page-Number", String.valueOf(page));
+                if (result.getT2() >= 0) response.header("X-Total-Count", String.valueOf(result.getT2()));
+                if (users.size() == pageSize) {
+                    long next = users.get(users.size() - 1).getId();
+                    response.header(HttpHeaders.LINK, "</api/admin/users?after=" + next + "&size=" + pageSize
+                        + "&page=" + (page + 1) + ">; rel=\"next\"");
+                }
+                return response.body(users);
+            });
+    }
+
+    /** A keyset page of the users holding a role, looked up through the role index. */
+    @GetMapping("/users/by-role/{role}")
+    public Flux<User> getUsersByRole(@PathVariable String role,
+                                     @RequestParam(defaultValue = "0") long after,
+                                     @RequestParam(required = false) Integer size) {
+        return userService.findUsersByRole(role, after, userService.pageSize(size));
+    }
+
+    /** The whole listing (from the optional cursor on) as NDJSON, streamed under backpressure. */
+    @GetMapping(value = "/users", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<User> streamAllUsers(@RequestParam(defaultValue = "0") long after) {
+        return userService.streamUsers(after);
     }
 
     @GetMapping("/users/{id}")
-    @PreAuthorize("@reactiveSecurityService.hasRole('ADMIN')")
     public Mono<ResponseEntity<User>> getUser(@PathVariable Long id) {
         return userService.findById(id)
             .map(ResponseEntity::ok)
@@ -35,20 +75,37 @@ public class AdminController {
 
     @DeleteMapping("/users/{id}")
     public Mono<ResponseEntity<Void>> deleteUser(@PathVariable Long id) {
-        return securityService.hasRole("ADMIN")
-            .filter(Boolean::booleanValue)
-            .flatMap(__ -> userService.deleteUser(id))
+        return userService.deleteUser(id)
             .then(Mono.just(ResponseEntity.noContent().<Void>build()))
-            .switchIfEmpty(Mono.just(ResponseEntity.status(HttpStatus.FORBIDDEN).build()))
             .onErrorReturn(ResponseEntity.notFound().build());
     }
 
     @PostMapping("/users/bulk-disable")
     public Mono<ResponseEntity<String>> bulkDisableUsers(@RequestBody Flux<Long> userIds) {
-        return securityService.hasRole("ADMIN")
-            .filter(Boolean::booleanValue)
-            .flatMap(__ -> userService.bulkDisableUsers(userIds))
-            .map(count -> ResponseEntity.ok("Disabled " + count + " users"))
-            .switchIfEmpty(Mono.just(ResponseEntity.status(HttpStatus.FORBIDDEN).body("Not authorized")));
+        return userService.bulkDisableUsers(userIds).last(new BulkDisableProgress())
+            .map(progress -> ResponseEntity.ok("Disabled " + progress.getDisabled() + " users"));
+    }
+
+    /** Same operation for clients that accept NDJSON: streams a progress line per applied chunk. */
+    @PostMapping(value = "/users/bulk-disable", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Mono<ResponseEntity<Flux<BulkDisableProgress>>> bulkDisableUsersStreaming(@RequestBody Flux<Long> userIds) {
+        return Mono.just(ResponseEntity.ok(userService.bulkDisableUsers(userIds)));
+    }
+
+    /** Revokes all of the user's access tokens issued so far and deletes their refresh tokens. */
+    @PostMapping("/users/{id}/revoke-tokens")
+    public Mono<ResponseEntity<Void>> revokeUserTokens(@PathVariable Long id) {
+        return authService.revokeUserTokens(id)
+            .map(__ -> ResponseEntity.noContent().<Void>build())
+            .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /** Revokes one access token, given the token itself. */
+    @PostMapping("/tokens/revoke")
+    public Mono<ResponseEntity<String>> revokeToken(@Valid @RequestBody RevokeTokenRequest req) {
+        return authService.revokeToken(req.getToken())
+            .then(Mono.just(ResponseEntity.noContent().<String>build()))
+            // Expired or forged: there is nothing to revoke
+            .onErrorResume(AuthenticationException.class, e -> Mono.just(ResponseEntity.badRequest().body(e.getMessage())));
     }
 }
@@ -1,14 +1,21 @@
 package com.example.reactive.controller;
 
+import com.example.reactive.exception.DuplicateUserException;
+import com.example.reactive.exception.LoginThrottledException;
+import com.example.reactive.exception.ServiceOverloadedException;
 import com.example.reactive.model.JwtResponse;
 import com.example.reactive.model.LoginRequest;
+import com.example.reactive.model.RefreshRequest;
 import com.example.reactive.model.SignupRequest;
 import com.example.reactive.model.User;
+import com.example.reactive.security.ClientAddressResolver;
 import com.example.reactive.service.AuthService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Mono;
 
@@ -18,11 +25,27 @@ import reactor.core.publisher.Mono;
 public class AuthController {
 
     private final AuthService authService;
+    private final ClientAddressResolver clientAddressResolver;
 
     @PostMapping("/login")
-    public Mono<ResponseEntity<JwtResponse>> login(@Valid @RequestBody LoginRequest req) {
-        return authService.login(req.getUsername(), req.getPassword())
+    public Mono<ResponseEntity<JwtResponse>> login(@Valid @RequestBody LoginRequest req, ServerHttpRequest request) {
+        return authService.login(req.getUsername(), req.getPassword(), clientAddressResolver.resolve(request))
             .map(ResponseEntity::ok)
+            .onErrorResume(LoginThrottledException.class, e -> Mono.just(ResponseEntity
+                .status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, e.retryAfterSeconds())
+                .build()))
+            .onErrorResume(e -> ServiceOverloadedException.in(e) != null,
+                e -> Mono.just(overloaded(ServiceOverloadedException.in(e))))
+            .onErrorReturn(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+    }
+
+    @PostMapping("/refresh")
+    public Mono<ResponseEntity<JwtResponse>> refresh(@Valid @RequestBody RefreshRequest req) {
+        return authService.refresh(req.getRefreshToken())
+            .map(ResponseEntity::ok)
+            .onErrorResume(e -> ServiceOverloadedException.in(e) != null,
+                e -> Mono.just(overloaded(ServiceOverloadedException.in(e))))
             .onErrorReturn(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
     }
 
@@ -30,6 +53,15 @@ public class AuthController {
     public Mono<ResponseEntity<User>> signup(@Valid @RequestBody SignupRequest req) {
         return authService.signup(req)
             .map(u -> ResponseEntity.status(HttpStatus.CREATED).body(u))
-            .onErrorReturn(ResponseEntity.badRequest().build());
+            .onErrorResume(e -> ServiceOverloadedException.in(e) != null,
+                e -> Mono.just(overloaded(ServiceOverloadedException.in(e))))
+            // Duplicates go on to the global handler: still a 400, but with the reason in the body
+            .onErrorReturn(e -> !(e instanceof DuplicateUserException), ResponseEntity.badRequest().build());
+    }
+
+    private static <T> ResponseEntity<T> overloaded(ServiceOverloadedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, e.retryAfterSeconds())
+            .build();
     }
 }
@@ -1,13 +1,13 @@
 package com.example.reactive.controller;
 
 import com.example.reactive.model.User;
-import com.example.reactive.service.ReactiveSecurityService;
+import com.example.reactive.security.OwnsUser;
+import com.example.reactive.security.RequiresRole;
 import com.example.reactive.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Mono;
@@ -20,7 +20,6 @@ import java.security.Principal;
 public class UserController {
 
     private final UserService userService;
-    private final ReactiveSecurityService securityService;
 
     @GetMapping("/profile")
     public Mono<ResponseEntity<User>> getProfile(@AuthenticationPrincipal Mono<Principal> principalMono) {
@@ -40,10 +39,7 @@ public class UserController {
 
         return principalMono
             .map(Principal::getName)
-            .flatMap(current -> userService.findById(id)
-                .filter(u -> u.getUsername().equals(current))
-                .switchIfEmpty(Mono.error(new org.springframework.security.access.AccessDeniedException("You can only update your own profile")))
-                .flatMap(__ -> userService.updateUser(id, updateRequest)))
+            .flatMap(current -> userService.updateUser(id, current, updateRequest))
             .map(ResponseEntity::ok)
             .onErrorResume(org.springframework.security.access.AccessDeniedException.class,
                 e -> Mono.just(ResponseEntity.status(HttpStatus.FORBIDDEN).build()))
@@ -51,18 +47,16 @@ public class UserController {
     }
 
     @GetMapping("/{id}")
-    public Mono<ResponseEntity<User>> getUserById(@PathVariable Long id,
-                                                  @AuthenticationPrincipal Mono<Principal> principalMono) {
-        return principalMono
-            .flatMap(__ -> securityService.canAccessUserResource(id)
-                .filter(Boolean::booleanValue)
-                .flatMap(___ -> userService.findById(id)))
-            .map(ResponseEntity::ok)
-            .defaultIfEmpty(ResponseEntity.status(HttpStatus.FORBIDDEN).build());
+    @OwnsUser
+    public Mono<ResponseEntity<User>> getUserById(@PathVariable Long id) {
+        return userService.findById(id)
+            .map(ResponseEntity::ok);
     }
 
+    // Deleting users is an admin operation, even for one's own account
     @DeleteMapping("/{id}")
-    @PreAuthorize("@reactiveSecurityService.canAccessUserResource(#id)")
+    @OwnsUser
+    @RequiresRole("ADMIN")
     public Mono<ResponseEntity<Void>> deleteOwnAccount(@PathVariable Long id) {
         return userService.deleteUser(id)
             .then(Mono.just(ResponseEntity.noContent().<Void>build()))
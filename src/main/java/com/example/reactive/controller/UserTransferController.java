@@ -0,0 +1,49 @@
+package com.example.reactive.controller;
+
+import com.example.reactive.model.User;
+import com.example.reactive.model.UserImportResult;
+import com.example.reactive.model.UserImportRow;
+import com.example.reactive.security.RequiresRole;
+import com.example.reactive.service.UserService;
+import com.example.reactive.service.UserTransferService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+/**
+ * Bulk user import/export. Import streams back one NDJSON result per row as rows complete;
+ * export streams the table without loading it.
+ */
+@RestController
+@RequestMapping("/api/admin/users")
+@RequiresRole("ADMIN")
+@RequiredArgsConstructor
+public class UserTransferController {
+
+    private static final String TEXT_CSV = "text/csv";
+
+    private final UserTransferService transferService;
+    private final UserService userService;
+
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE},
+        produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<UserImportResult> importUsers(@RequestBody Flux<UserImportRow> rows) {
+        return transferService.importUsers(rows);
+    }
+
+    @PostMapping(value = "/import", consumes = TEXT_CSV, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<UserImportResult> importUsersCsv(@RequestBody Flux<String> lines) {
+        return transferService.importCsv(lines);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<User> exportUsers() {
+        return userService.streamUsers(0);
+    }
+
+    @GetMapping(value = "/export", produces = TEXT_CSV)
+    public Flux<String> exportUsersCsv() {
+        return transferService.exportCsv();
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.reactive.diagnostics;
+
+import reactor.blockhound.BlockHound;
+import reactor.blockhound.integration.BlockHoundIntegration;
+
+/**
+ * Blocking on event loops this app accepts because it happens once or cannot actually block. Logging is already allowed by BlockHound's
+ * own integration; {@code System.out}/{@code System.err} deliberately are not (see {@link BlockingCallDetector}).
+ */
+final class AppBlockHoundIntegration implements BlockHoundIntegration {
+
+    @Override
+    public void applyTo(BlockHound.Builder builder) {
+        // Spring Data reads a projection's class file on its first query, then caches the metadata
+        builder.allowBlockingCallsInside("org.springframework.data.projection.ProxyProjectionFactory",
+            "getProjectionInformation");
+        // Token ids: NativePRNG refills its buffer from /dev/urandom, which never blocks
+        builder.allowBlockingCallsInside("java.util.UUID", "randomUUID");
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.reactive.diagnostics;
+
+import com.example.reactive.config.BlockingDiagnosticsProperties;
+import com.example.reactive.diagnostics.EventLoopActivity.BlockingCall;
+import com.example.reactive.exception.ErrorLogSampler;
+import io.micrometer.context.ContextRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.blockhound.BlockHound;
+import reactor.blockhound.BlockingMethod;
+import reactor.blockhound.BlockingOperationError;
+import reactor.blockhound.integration.BlockHoundIntegration;
+import reactor.blockhound.integration.StandardOutputIntegration;
+import reactor.core.publisher.Hooks;
+
+import java.util.ServiceLoader;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Installs BlockHound (with the integrations found on the classpath plus {@link AppBlockHoundIntegration}) and
+ * turns every blocking call on a non-blocking thread into a {@code eventloop.blocking.calls} count tagged with
+ * the route and the calling frame, plus a sampled warning. In strict mode the call fails as BlockHound
+ * normally would.
+ * <p>
+ * BlockHound instruments the JVM once and for good, so a later context (a restarted app in the same JVM) takes
+ * over the callback rather than installing again.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "diagnostics.blocking", name = "enabled", havingValue = "true")
+public class BlockingCallDetector {
+
+    private static final AtomicBoolean INSTALLED = new AtomicBoolean();
+    private static volatile BlockingCallDetector active;
+
+    private final MeterRegistry meterRegistry;
+    private final boolean strict;
+    private final ErrorLogSampler logSampler;
+
+    public BlockingCallDetector(BlockingDiagnosticsProperties props, MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.strict = props.isStrict();
+        this.logSampler = new ErrorLogSampler(props.getLogInterval());
+        active = this;
+        if (INSTALLED.compareAndSet(false, true)) install();
+        log.info("Blocking call detection on ({} mode)", strict ? "strict" : "reporting");
+    }
+
+    private static void install() {
+        ContextRegistry.getInstance().registerThreadLocalAccessor(new EventLoopActivity.ExchangeAccessor());
+        Hooks.enableAutomaticContextPropagation();
+        try {
+            BlockHound.Builder builder = BlockHound.builder();
+            // Everything on the classpath except the one that lets System.out/err block anywhere
+            ServiceLoader.load(BlockHoundIntegration.class).stream()
+                .map(ServiceLoader.Provider::get)
+                .filter(integration -> !(integration instanceof StandardOutputIntegration))
+                .sorted()
+                .forEach(builder::with);
+            builder.with(new AppBlockHoundIntegration())
+                .blockingMethodCallback(BlockingCallDetector::onBlockingCall)
+                .install();
+        } catch (IllegalStateException | UnsupportedOperationException e) {
+            INSTALLED.set(false);
+            throw new IllegalStateException("BlockHound could not instrument the JVM; on JDK 13+ start it with "
+                + "-XX:+AllowRedefinitionToAddDeleteMethods", e);
+        }
+    }
+
+    private static void onBlockingCall(BlockingMethod method) {
+        BlockingCallDetector detector = active;
+        if (detector != null) detector.report(method);
+    }
+
+    private void report(BlockingMethod method) {
+        EventLoopActivity activity = EventLoopActivity.current();
+        var exchange = activity.exchange;
+        String caller = StackWalker.getInstance()
+            .walk(frames -> EventLoopActivity.caller(frames.map(StackWalker.StackFrame::toStackTraceElement)));
+        // Only JDK frames and no request: a pooled worker idling in a queue poll it entered before we
+        // instrumented it (later polls are allowed by the Reactor integration)
+        if (exchange == null && EventLoopActivity.UNKNOWN.equals(caller)) return;
+        var call = new BlockingCall(method.toString(), caller, EventLoopActivity.route(exchange),
+            EventLoopActivity.path(exchange), System.nanoTime());
+        activity.lastBlockingCall = call;
+
+        Counter.builder("eventloop.blocking.calls")
+            .description("Blocking calls made on event-loop threads")
+            .tag("route", call.route())
+            .tag("call", call.method())
+            .tag("caller", call.caller())
+            .register(meterRegistry)
+            .increment();
+        long dropped = logSampler.tryAcquire(call.route() + " " + call.method() + " " + call.caller());
+        if (dropped >= 0) {
+            log.warn("Blocking call {} on {} from {} serving {} {}{}", call.method(), Thread.currentThread().getName(),
+                call.caller(), call.route(), call.path(), dropped > 0 ? " (+" + dropped + " like it not logged)" : "");
+        }
+        if (strict) throw new BlockingOperationError(method);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // The instrumentation stays; calls go unreported until another context installs a detector
+        if (active == this) active = null;
+    }
+}
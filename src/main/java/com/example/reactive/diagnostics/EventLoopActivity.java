@@ -0,0 +1,106 @@
+package com.example.reactive.diagnostics;
+
+import io.micrometer.context.ThreadLocalAccessor;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * What each thread is working on, readable from other threads: the exchange being served (restored onto
+ * the thread by Reactor's context propagation) and the last blocking call BlockHound saw there. The
+ * stall monitor reads a loop's state after the fact or while it is stuck.
+ */
+final class EventLoopActivity {
+
+    static final String UNKNOWN = "UNKNOWN";
+
+    private static final String APP_PACKAGE = "com.example.reactive.";
+    private static final String DIAGNOSTICS_PACKAGE = EventLoopActivity.class.getPackageName() + ".";
+
+    private static final Map<Thread, EventLoopActivity> BY_THREAD = new ConcurrentHashMap<>();
+    private static final ThreadLocal<EventLoopActivity> CURRENT = ThreadLocal.withInitial(() -> {
+        var activity = new EventLoopActivity();
+        // Only the fixed set of non-blocking threads, not every virtual or elastic thread that passes by
+        if (Schedulers.isInNonBlockingThread()) BY_THREAD.put(Thread.currentThread(), activity);
+        return activity;
+    });
+
+    volatile ServerWebExchange exchange;
+    volatile BlockingCall lastBlockingCall;
+
+    /** A blocking call seen on an event loop, with the request it was made for. */
+    record BlockingCall(String method, String caller, String route, String path, long nanoTime) {}
+
+    static EventLoopActivity current() {
+        return CURRENT.get();
+    }
+
+    /** {@code null} if the thread never ran anything we track. */
+    static EventLoopActivity of(Thread thread) {
+        return BY_THREAD.get(thread);
+    }
+
+    static String route(ServerWebExchange exchange) {
+        if (exchange == null) return UNKNOWN;
+        PathPattern pattern = exchange.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        // Before handler mapping only the raw path is known, and that has ids in it
+        return exchange.getRequest().getMethod().name() + " "
+            + (pattern == null ? UNKNOWN : pattern.getPatternString());
+    }
+
+    static String path(ServerWebExchange exchange) {
+        return exchange == null ? "" : exchange.getRequest().getPath().value();
+    }
+
+    /** The innermost application frame, else the innermost library one: the code that made the call. */
+    static String caller(Stream<StackTraceElement> frames) {
+        StackTraceElement library = null;
+        for (StackTraceElement frame : (Iterable<StackTraceElement>) frames::iterator) {
+            String className = frame.getClassName();
+            if (className.startsWith(DIAGNOSTICS_PACKAGE) || className.startsWith("reactor.blockhound.")) continue;
+            if (className.startsWith(APP_PACKAGE)) return describe(frame);
+            if (library == null && !className.startsWith("java.") && !className.startsWith("jdk.")
+                    && !className.startsWith("sun.")) {
+                library = frame;
+            }
+        }
+        return library == null ? UNKNOWN : describe(library);
+    }
+
+    private static String describe(StackTraceElement frame) {
+        String className = frame.getClassName();
+        return className.substring(className.lastIndexOf('.') + 1) + "." + frame.getMethodName()
+            + ":" + frame.getLineNumber();
+    }
+
+    /** Exposes {@link #exchange} to Reactor's automatic context propagation. */
+    static final class ExchangeAccessor implements ThreadLocalAccessor<ServerWebExchange> {
+
+        static final String KEY = EventLoopActivity.class.getName() + ".exchange";
+
+        @Override
+        public Object key() {
+            return KEY;
+        }
+
+        @Override
+        public ServerWebExchange getValue() {
+            return current().exchange;
+        }
+
+        @Override
+        public void setValue(ServerWebExchange value) {
+            current().exchange = value;
+        }
+
+        @Override
+        public void setValue() {
+            current().exchange = null;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.reactive.diagnostics;
+
+import com.example.reactive.config.BlockingDiagnosticsProperties;
+import com.example.reactive.diagnostics.EventLoopActivity.BlockingCall;
+import com.example.reactive.exception.ErrorLogSampler;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.util.concurrent.EventExecutor;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.client.ReactorResourceFactory;
+import org.springframework.stereotype.Component;
+import reactor.netty.resources.LoopResources;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long a task waits on each server event loop: every probe interval a no-op task is queued on
+ * every loop and its queueing delay recorded as {@code eventloop.task.latency}. A delay over the stall
+ * threshold is a stall, recorded as {@code eventloop.stalls} against whatever held the loop: the last
+ * blocking call {@link BlockingCallDetector} saw there, or else the loop's stack sampled while it was stuck
+ * (which is how CPU-bound work like hashing shows up).
+ * <p>
+ * Probes run on their own daemon thread so a stuck scheduler elsewhere can't hide a stuck loop.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "diagnostics.blocking", name = "enabled", havingValue = "true")
+public class EventLoopStallMonitor {
+
+    private final long thresholdNanos;
+    private final MeterRegistry meterRegistry;
+    private final Timer latency;
+    private final ErrorLogSampler logSampler;
+    private final List<Probe> probes = new ArrayList<>();
+    private final ScheduledExecutorService ticker;
+
+    public EventLoopStallMonitor(BlockingDiagnosticsProperties props, ReactorResourceFactory resources,
+                                 MeterRegistry meterRegistry) {
+        this.thresholdNanos = props.getStallThreshold().toNanos();
+        this.meterRegistry = meterRegistry;
+        this.latency = Timer.builder("eventloop.task.latency")
+            .description("Time a task waited on a server event loop")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        this.logSampler = new ErrorLogSampler(props.getLogInterval());
+        for (EventExecutor loop : resources.getLoopResources().onServer(LoopResources.DEFAULT_NATIVE)) {
+            probes.add(new Probe(loop));
+        }
+        this.ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            var t = new Thread(r, "eventloop-monitor");
+            t.setDaemon(true);
+            return t;
+        });
+        long interval = props.getProbeInterval().toNanos();
+        ticker.scheduleWithFixedDelay(this::tick, interval, interval, TimeUnit.NANOSECONDS);
+        log.info("Probing {} event loops every {}, stall threshold {}", probes.size(), props.getProbeInterval(),
+            props.getStallThreshold());
+    }
+
+    private void tick() {
+        for (Probe probe : probes) {
+            try {
+                probe.tick();
+            } catch (RejectedExecutionException e) {
+                // Loop shutting down
+            } catch (RuntimeException e) {
+                log.warn("Event loop probe failed", e);
+            }
+        }
+    }
+
+    private void stalled(Probe probe, long lagNanos) {
+        EventLoopActivity activity = EventLoopActivity.of(probe.thread);
+        BlockingCall call = activity == null ? null : activity.lastBlockingCall;
+        String route, method, caller, path;
+        if (call != null && call.nanoTime() - probe.lastRun > 0) {
+            route = call.route();
+            method = call.method();
+            caller = call.caller();
+            path = call.path();
+        } else if (probe.sample != null) {
+            route = probe.sample.route();
+            method = "none";
+            caller = probe.sample.caller();
+            path = probe.sample.path();
+        } else {
+            route = caller = EventLoopActivity.UNKNOWN;
+            path = "";
+            method = "none";
+        }
+        Timer.builder("eventloop.stalls")
+            .description("Event-loop stalls over the threshold, by what held the loop")
+            .tag("route", route)
+            .tag("call", method)
+            .tag("caller", caller)
+            .register(meterRegistry)
+            .record(lagNanos, TimeUnit.NANOSECONDS);
+        long dropped = logSampler.tryAcquire(route + " " + method + " " + caller);
+        if (dropped >= 0) {
+            log.warn("{} stalled for {} ms serving {} {}: blocking call {} from {}{}", probe.thread.getName(),
+                Duration.ofNanos(lagNanos).toMillis(), route, path, method, caller,
+                dropped > 0 ? " (+" + dropped + " like it not logged)" : "");
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        ticker.shutdownNow();
+    }
+
+    /** Where a stuck loop was when we looked. */
+    private record Sample(String route, String path, String caller) {}
+
+    private final class Probe implements Runnable {
+
+        final EventExecutor loop;
+        /** Known from the first probe that ran. */
+        volatile Thread thread;
+        /** When the pending probe was queued; 0 when none is. */
+        volatile long queuedAt;
+        volatile long lastRun = System.nanoTime();
+        volatile Sample sample;
+
+        Probe(EventExecutor loop) {
+            this.loop = loop;
+        }
+
+        /** On the monitor thread. */
+        void tick() {
+            long now = System.nanoTime();
+            long queued = queuedAt;
+            // A probe now would restart the loop's shutdown quiet period, and keep restarting it
+            if (loop.isShuttingDown()) return;
+            if (queued == 0) {
+                queuedAt = now == 0 ? 1 : now;
+                loop.execute(this);
+            } else if (sample == null && thread != null && now - queued >= thresholdNanos) {
+                EventLoopActivity activity = EventLoopActivity.of(thread);
+                var exchange = activity == null ? null : activity.exchange;
+                sample = new Sample(EventLoopActivity.route(exchange), EventLoopActivity.path(exchange),
+                    EventLoopActivity.caller(Arrays.stream(thread.getStackTrace())));
+            }
+        }
+
+        /** On the loop. */
+        @Override
+        public void run() {
+            long now = System.nanoTime();
+            long lag = now - queuedAt;
+            if (thread == null) {
+                // The first probe may have started the loop thread; that isn't a stall
+                thread = Thread.currentThread();
+            } else {
+                latency.record(lag, TimeUnit.NANOSECONDS);
+                if (lag >= thresholdNanos) stalled(this, lag);
+            }
+            lastRun = now;
+            sample = null;
+            queuedAt = 0;
+        }
+    }
+}
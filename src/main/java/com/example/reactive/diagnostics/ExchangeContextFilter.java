@@ -0,0 +1,31 @@
+package com.example.reactive.diagnostics;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/** Puts the exchange in the Reactor context, ahead of security, so blocking calls can be tied to a route. */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(prefix = "diagnostics.blocking", name = "enabled", havingValue = "true")
+public class ExchangeContextFilter implements WebFilter {
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        EventLoopActivity activity = EventLoopActivity.current();
+        ServerWebExchange previous = activity.exchange;
+        // Covers what the chain does while being assembled; the context covers every later signal
+        activity.exchange = exchange;
+        try {
+            return chain.filter(exchange).contextWrite(context -> context.put(EventLoopActivity.ExchangeAccessor.KEY,
+                exchange));
+        } finally {
+            activity.exchange = previous;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.reactive.exception;
+
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+
+/** An insert hit the unique constraint on username or email; rendered as 400 with the message. */
+public class DuplicateUserException extends IllegalArgumentException {
+    public DuplicateUserException(String message) { super(message); }
+
+    /** The matching DuplicateUserException if {@code e} names one of the users constraints, else {@code e}. */
+    public static RuntimeException translate(DataIntegrityViolationException e) {
+        String message = String.valueOf(e.getMostSpecificCause().getMessage()).toLowerCase(Locale.ROOT);
+        if (message.contains("uk_users_username")) return new DuplicateUserException("Username already exists");
+        if (message.contains("uk_users_email")) return new DuplicateUserException("Email already exists");
+        return e;
+    }
+}
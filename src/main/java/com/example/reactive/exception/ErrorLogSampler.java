@@ -0,0 +1,41 @@
+package com.example.reactive.exception;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lets at most one log line per key through per interval and counts the rest, so a flood of the same
+ * failure doesn't turn into a flood of stack traces. Keys should be few and fixed, e.g. exception classes.
+ */
+public final class ErrorLogSampler {
+
+    private final long intervalNanos;
+    private final Map<Object, Window> windows = new ConcurrentHashMap<>();
+
+    public ErrorLogSampler(Duration interval) {
+        this.intervalNanos = interval.toNanos();
+    }
+
+    /**
+     * @return {@code -1} if this occurrence should not be logged, otherwise how many were dropped since
+     * the last one that was
+     */
+    public long tryAcquire(Object key) {
+        Window w = windows.computeIfAbsent(key, k -> new Window());
+        long now = System.nanoTime();
+        long next = w.next.get();
+        if ((next == Long.MIN_VALUE || now - next >= 0) && w.next.compareAndSet(next, now + intervalNanos)) {
+            return w.dropped.sumThenReset();
+        }
+        w.dropped.increment();
+        return -1;
+    }
+
+    private static final class Window {
+        final AtomicLong next = new AtomicLong(Long.MIN_VALUE);
+        final LongAdder dropped = new LongAdder();
+    }
+}
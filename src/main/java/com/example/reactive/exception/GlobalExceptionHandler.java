@@ -3,39 +3,73 @@ package com.example.reactive.exception;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.web.reactive.error.ErrorWebExceptionHandler;
 import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 
 @Slf4j
 @Component
 @Order(-2)
 public class GlobalExceptionHandler implements ErrorWebExceptionHandler {
 
+    private static final byte[] INTERNAL_ERROR = ("{\"error\":\"Internal Server Error\","
+        + "\"message\":\"An unexpected error occurred\",\"status\":500}").getBytes(StandardCharsets.UTF_8);
+
+    /** One stack trace per exception type per interval; the rest are only counted. */
+    private final ErrorLogSampler errorLog = new ErrorLogSampler(Duration.ofSeconds(10));
+
     @Override
     public Mono<Void> handle(ServerWebExchange exchange, Throwable ex) {
-        log.error("Global exception: ", ex);
         var response = exchange.getResponse();
         response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
 
-        HttpStatus status = HttpStatus.INTERNAL_SERVER_ERROR;
-        String message = "An unexpected error occurred";
+        HttpStatusCode status;
+        String message;
 
-        if (ex instanceof CustomAuthenticationException) {
+        if (ex instanceof CustomAuthenticationException || ex instanceof AuthenticationException) {
             status = HttpStatus.UNAUTHORIZED;
             message = ex.getMessage();
+        } else if (ServiceOverloadedException.in(ex) instanceof ServiceOverloadedException overloaded) {
+            status = HttpStatus.SERVICE_UNAVAILABLE;
+            message = overloaded.getMessage();
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER, overloaded.retryAfterSeconds());
+        } else if (ex instanceof LoginThrottledException throttled) {
+            status = HttpStatus.TOO_MANY_REQUESTS;
+            message = ex.getMessage();
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER, throttled.retryAfterSeconds());
+        } else if (ex instanceof ResponseStatusException rse && rse.getStatusCode().is4xxClientError()) {
+            // Unknown path (404), wrong method (405) or media type (415): the client's mistake, not ours
+            status = rse.getStatusCode();
+            message = rse.getReason();
+            response.getHeaders().addAll(rse.getHeaders());
         } else if (ex instanceof IllegalArgumentException) {
             status = HttpStatus.BAD_REQUEST;
             message = ex.getMessage();
+        } else {
+            long suppressed = errorLog.tryAcquire(ex.getClass());
+            if (suppressed >= 0) {
+                log.error("Unhandled exception on {} ({} similar suppressed)",
+                    exchange.getRequest().getPath(), suppressed, ex);
+            }
+            response.setStatusCode(HttpStatus.INTERNAL_SERVER_ERROR);
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(INTERNAL_ERROR)));
         }
 
+        // Expected rejections: the status says it all, no stack trace
+        log.debug("{} on {}: {}", status.value(), exchange.getRequest().getPath(), message);
         response.setStatusCode(status);
+        HttpStatus known = HttpStatus.resolve(status.value());
         String body = String.format("{\"error\":\"%s\",\"message\":\"%s\",\"status\":%d}",
-                status.getReasonPhrase(), message, status.value());
+                known != null ? known.getReasonPhrase() : status.value(), message, status.value());
         var buf = response.bufferFactory().wrap(body.getBytes(StandardCharsets.UTF_8));
         return response.writeWith(Mono.just(buf));
     }
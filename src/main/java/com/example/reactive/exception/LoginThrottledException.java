@@ -0,0 +1,19 @@
+package com.example.reactive.exception;
+
+import java.time.Duration;
+
+/** Login attempt rejected by the throttle before any lookup or hashing; rendered as 429 with Retry-After. */
+public class LoginThrottledException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public LoginThrottledException(Duration retryAfter) {
+        super("Too many login attempts", null, false, false);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() { return retryAfter; }
+
+    public String retryAfterSeconds() {
+        return String.valueOf(Math.max(1, (retryAfter.toMillis() + 999) / 1000));
+    }
+}
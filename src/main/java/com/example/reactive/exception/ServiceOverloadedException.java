@@ -0,0 +1,28 @@
+package com.example.reactive.exception;
+
+import java.time.Duration;
+
+/** Request shed because a bounded resource is saturated; rendered as 503 with Retry-After. */
+public class ServiceOverloadedException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public ServiceOverloadedException(String message, Duration retryAfter) {
+        // Thrown on every shed request: skip the stack trace, it carries no information here
+        super(message, null, false, false);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() { return retryAfter; }
+
+    /** The overload behind {@code t}, which may be wrapped (e.g. by Spring's data access layer); else {@code null}. */
+    public static ServiceOverloadedException in(Throwable t) {
+        for (; t != null; t = t.getCause()) {
+            if (t instanceof ServiceOverloadedException overloaded) return overloaded;
+        }
+        return null;
+    }
+
+    public String retryAfterSeconds() {
+        return String.valueOf(Math.max(1, (retryAfter.toMillis() + 999) / 1000));
+    }
+}
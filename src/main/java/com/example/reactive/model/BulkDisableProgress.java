@@ -0,0 +1,21 @@
+package com.example.reactive.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Running totals of a bulk-disable request, emitted after every chunk. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkDisableProgress {
+    private long chunks;
+    /** Ids received so far. */
+    private long ids;
+    /** Users actually switched from enabled to disabled so far. */
+    private long disabled;
+
+    public BulkDisableProgress plus(BulkDisableProgress chunk) {
+        return new BulkDisableProgress(chunks + chunk.chunks, ids + chunk.ids, disabled + chunk.disabled);
+    }
+}
@@ -11,4 +11,5 @@ public class JwtResponse {
     private String token;
     private String type = "Bearer";
     private String username;
+    private String refreshToken;
 }
@@ -0,0 +1,24 @@
+package com.example.reactive.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+/** Server-side record of an outstanding refresh token; deleting the row invalidates the token. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("refresh_tokens")
+public class RefreshToken {
+    @Id
+    private String jti;
+    @Column("user_id")
+    private Long userId;
+    @Column("expires_at")
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,10 @@
+package com.example.reactive.model;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class RevokeTokenRequest {
+    @NotBlank
+    private String token;
+}
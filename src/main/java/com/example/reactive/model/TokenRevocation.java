@@ -0,0 +1,29 @@
+package com.example.reactive.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * A revoked access token ({@code jti} set) or all of a user's access tokens issued up to {@code revokedAt}
+ * ({@code username} set). Kept until {@code expiresAt}, after which the tokens it covers are expired anyway.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("token_revocations")
+public class TokenRevocation {
+    @Id
+    private Long id;
+    private String jti;
+    private String username;
+    @Column("revoked_at")
+    private LocalDateTime revokedAt;
+    @Column("expires_at")
+    private LocalDateTime expiresAt;
+}
@@ -1,5 +1,6 @@
 package com.example.reactive.model;
 
+import com.example.reactive.security.RoleRegistry;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -9,18 +10,16 @@ import org.springframework.data.annotation.Id;
 import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Table;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 @Table("users")
 public class User implements UserDetails {
     @Id
@@ -31,7 +30,8 @@ public class User implements UserDetails {
     @JsonIgnore
     private String password;
 
-    // Stored as comma-separated string via converters (see ConvertersConfig)
+    // Stored as a bitmask of role ids via converters (see ConvertersConfig)
+    @Column("role_mask")
     private Set<String> roles;
 
     @Column("enabled")
@@ -53,10 +53,6 @@ public class User implements UserDetails {
     @Override
     @JsonIgnore
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return roles == null ? java.util.List.of() :
-                roles.stream()
-                    .map(r -> r.startsWith("ROLE_") ? r : "ROLE_" + r)
-                    .map(SimpleGrantedAuthority::new)
-                    .collect(Collectors.toList());
+        return RoleRegistry.fromRoles(roles).authorities();
     }
 }
@@ -0,0 +1,27 @@
+package com.example.reactive.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Outcome of one imported row; {@code row} is its 1-based position among the data rows. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserImportResult {
+    private long row;
+    private String username;
+    private boolean created;
+    private Long id;
+    private String error;
+
+    public static UserImportResult created(long row, String username, Long id) {
+        return new UserImportResult(row, username, true, id, null);
+    }
+
+    public static UserImportResult failed(long row, String username, String error) {
+        return new UserImportResult(row, username, false, null, error);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.reactive.model;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+
+/** One account in a bulk import; same rules as {@link SignupRequest}, plus optional roles (default USER). */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserImportRow {
+    @NotBlank @Size(min = 3, max = 20)
+    private String username;
+    @NotBlank @Email
+    private String email;
+    @NotBlank @Size(min = 6, max = 100)
+    private String password;
+    private Set<String> roles;
+}
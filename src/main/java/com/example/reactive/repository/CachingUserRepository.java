@@ -0,0 +1,269 @@
+package com.example.reactive.repository;
+
+import com.example.reactive.config.UserCacheProperties;
+import com.example.reactive.model.User;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-through cache in front of the configured {@link UserRepository} backend (R2DBC, or JDBC on virtual
+ * threads), indexed by id and by username.
+ * <p>
+ * Concurrent misses for the same key share one query (Caffeine keeps the in-flight future).
+ * Absent users are not cached, and each index only caches what it loaded itself. Writes through this
+ * repository evict the affected entries, including one still loading; callers always get their own copy
+ * of the cached {@link User}, so mutating it is safe.
+ */
+@Primary
+@Repository
+public class CachingUserRepository implements UserRepository {
+
+    private final UserRepository delegate;
+    private final RepositoryTimers timers;
+    private final AsyncCache<Long, User> byId;
+    private final AsyncCache<String, User> byUsername;
+    /** Id of every row in {@link #byUsername}, so a write that only knows the id can evict it. */
+    private final Map<Long, String> usernames = new ConcurrentHashMap<>();
+    /** Bumped by every eviction; a username load that overlapped one is not kept. */
+    private final AtomicLong writes = new AtomicLong();
+
+    public CachingUserRepository(@Qualifier("userRepositoryBackend") UserRepository delegate,
+                                 UserCacheProperties props, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.timers = new RepositoryTimers("users.repository", "UserRepository", meterRegistry);
+        if (!props.isEnabled()) {
+            this.byId = null;
+            this.byUsername = null;
+            return;
+        }
+        this.byId = Caffeine.newBuilder()
+            .maximumSize(props.getMaxEntries())
+            .expireAfterWrite(props.getTtl())
+            .recordStats()
+            .buildAsync();
+        this.byUsername = Caffeine.newBuilder()
+            .maximumSize(props.getMaxEntries())
+            .expireAfterWrite(props.getTtl())
+            .evictionListener((String username, User user, RemovalCause cause) -> {
+                if (user != null) usernames.remove(user.getId(), username);
+            })
+            .recordStats()
+            .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "users.by-id");
+        CaffeineCacheMetrics.monitor(meterRegistry, byUsername, "users.by-username");
+    }
+
+    // ---- cached reads ----
+
+    @Override
+    public Mono<User> findById(Long id) {
+        if (byId == null) return timers.mono("findById", delegate.findById(id));
+        return timers.mono("findById", read(byId.get(id, (k, executor) -> delegate.findById(k).toFuture())));
+    }
+
+    @Override
+    public Mono<User> findByUsername(String username) {
+        if (byUsername == null) return timers.mono("findByUsername", delegate.findByUsername(username));
+        return timers.mono("findByUsername", read(byUsername.get(username, this::loadByUsername)));
+    }
+
+    /**
+     * The id is only known once the row is back, so a write to it during the query cannot find the entry
+     * through {@link #usernames}; it bumps {@link #writes} instead, and the loaded row is dropped.
+     */
+    private CompletableFuture<User> loadByUsername(String username, Executor executor) {
+        long seen = writes.get();
+        CompletableFuture<User> loaded = delegate.findByUsername(username).toFuture();
+        // async: the query may complete inside Caffeine's compute, which must not touch this key again
+        loaded.thenAcceptAsync(user -> {
+            if (user == null) return;
+            usernames.put(user.getId(), username);
+            if (writes.get() != seen) byUsername.asMap().remove(username, loaded);
+        }, executor);
+        return loaded;
+    }
+
+    private static Mono<User> read(CompletableFuture<User> shared) {
+        // suppressCancel: one subscriber going away must not cancel the query others are waiting on
+        return Mono.fromFuture(shared, true).map(CachingUserRepository::copy);
+    }
+
+    /** toBuilder() alone would share the roles set with the cached instance. */
+    private static User copy(User cached) {
+        Set<String> roles = cached.getRoles();
+        return cached.toBuilder().roles(roles == null ? null : new LinkedHashSet<>(roles)).build();
+    }
+
+    // ---- writes: evict what they touch ----
+
+    @Override
+    public <S extends User> Mono<S> save(S entity) {
+        return timers.mono("save", delegate.save(entity).doOnNext(saved -> {
+            evict(entity);
+            evict(saved);
+        }));
+    }
+
+    @Override
+    public <S extends User> Flux<S> saveAll(Iterable<S> entities) {
+        return timers.flux("saveAll", delegate.saveAll(entities).doOnNext(this::evict));
+    }
+
+    @Override
+    public <S extends User> Flux<S> saveAll(Publisher<S> entityStream) {
+        return timers.flux("saveAll", delegate.saveAll(entityStream).doOnNext(this::evict));
+    }
+
+    @Override
+    public Mono<User> updateOwned(Long id, String username, String email) {
+        return timers.mono("updateOwned", delegate.updateOwned(id, username, email).doOnNext(this::evict));
+    }
+
+    @Override
+    public Mono<Integer> disableAll(Collection<Long> ids) {
+        return timers.mono("disableAll", delegate.disableAll(ids).doOnSuccess(__ -> evictIds(ids)));
+    }
+
+    @Override
+    public Mono<Void> deleteById(Long id) {
+        return timers.mono("deleteById", delegate.deleteById(id).doOnSuccess(__ -> evictId(id)));
+    }
+
+    @Override
+    public Mono<Void> deleteById(Publisher<Long> id) {
+        return Mono.from(id).flatMap(this::deleteById);
+    }
+
+    @Override
+    public Mono<Void> delete(User entity) {
+        return timers.mono("delete", delegate.delete(entity).doOnSuccess(__ -> evict(entity)));
+    }
+
+    @Override
+    public Mono<Void> deleteAllById(Iterable<? extends Long> ids) {
+        return timers.mono("deleteAllById", delegate.deleteAllById(ids).doOnSuccess(__ -> ids.forEach(this::evictId)));
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Iterable<? extends User> entities) {
+        return timers.mono("deleteAll", delegate.deleteAll(entities).doOnSuccess(__ -> entities.forEach(this::evict)));
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Publisher<? extends User> entityStream) {
+        return timers.mono("deleteAll", delegate.deleteAll(Flux.from(entityStream).doOnNext(this::evict)));
+    }
+
+    @Override
+    public Mono<Void> deleteAll() {
+        return timers.mono("deleteAll", delegate.deleteAll().doOnSuccess(__ -> evictAll()));
+    }
+
+    private void evict(User user) {
+        if (byId == null || user == null) return;
+        if (user.getId() != null) evictId(user.getId());
+        if (user.getUsername() != null) byUsername.synchronous().invalidate(user.getUsername());
+    }
+
+    /** The username of a deleted or rewritten row may not be at hand; {@link #usernames} has it. */
+    private void evictId(Long id) {
+        if (byId == null || id == null) return;
+        writes.incrementAndGet();
+        byId.synchronous().invalidate(id);
+        String username = usernames.remove(id);
+        if (username != null) byUsername.synchronous().invalidate(username);
+    }
+
+    private void evictIds(Collection<Long> ids) {
+        if (byId == null) return;
+        ids.forEach(this::evictId);
+    }
+
+    private void evictAll() {
+        if (byId == null) return;
+        writes.incrementAndGet();
+        byId.synchronous().invalidateAll();
+        byUsername.synchronous().invalidateAll();
+        usernames.clear();
+    }
+
+    // ---- uncached pass-through ----
+
+    @Override
+    public Mono<User> findByEmail(String email) {
+        return timers.mono("findByEmail", delegate.findByEmail(email));
+    }
+
+    @Override
+    public Flux<User> findPageAfter(long afterId, int limit) {
+        return timers.flux("findPageAfter", delegate.findPageAfter(afterId, limit));
+    }
+
+    @Override
+    public Flux<User> findPageByRole(int roleId, long afterId, int limit) {
+        return timers.flux("findPageByRole", delegate.findPageByRole(roleId, afterId, limit));
+    }
+
+    @Override
+    public Mono<Boolean> existsByUsername(String username) {
+        return timers.mono("existsByUsername", delegate.existsByUsername(username));
+    }
+
+    @Override
+    public Mono<Boolean> existsByEmail(String email) {
+        return timers.mono("existsByEmail", delegate.existsByEmail(email));
+    }
+
+    @Override
+    public Mono<User> findById(Publisher<Long> id) {
+        return Mono.from(id).flatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Long id) {
+        return timers.mono("existsById", delegate.existsById(id));
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Publisher<Long> id) {
+        return timers.mono("existsById", delegate.existsById(id));
+    }
+
+    @Override
+    public Flux<User> findAll() {
+        return timers.flux("findAll", delegate.findAll());
+    }
+
+    @Override
+    public Flux<User> findAllById(Iterable<Long> ids) {
+        return timers.flux("findAllById", delegate.findAllById(ids));
+    }
+
+    @Override
+    public Flux<User> findAllById(Publisher<Long> idStream) {
+        return timers.flux("findAllById", delegate.findAllById(idStream));
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return timers.mono("count", delegate.count());
+    }
+}
@@ -0,0 +1,331 @@
+package com.example.reactive.repository;
+
+import com.example.reactive.config.UserRepositoryBackendProperties;
+import com.example.reactive.exception.ServiceOverloadedException;
+import com.example.reactive.model.User;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * {@link UserRepository} on plain JDBC: every call runs one blocking statement on its own virtual thread against a
+ * bounded Hikari pool and is bridged back to a Mono or Flux. Selected with {@code database.users.backend=jdbc}; the
+ * queries match the R2DBC repository's, so the two are interchangeable behind {@link CachingUserRepository}.
+ * <p>
+ * Virtual threads make the wait for a connection cheap, but not free: at most {@code max-pool-size + max-pending}
+ * statements are admitted at a time, the rest fail at once with {@link ServiceOverloadedException}, as they do
+ * when the R2DBC pool's wait queue is full. Flux results are read into memory before they are emitted, so the
+ * result set never outlives its statement; the listings that can be large are paged.
+ */
+@Slf4j
+public class JdbcUserRepository implements UserRepository, AutoCloseable {
+
+    private static final String COLUMNS = "id, username, email, password, role_mask, enabled, account_non_expired, "
+        + "account_non_locked, credentials_non_expired, created_at, updated_at, last_login_at";
+
+    private final HikariDataSource dataSource;
+    private final JdbcClient jdbc;
+    private final RoleCatalog roleCatalog;
+    private final Scheduler scheduler;
+    /** Admitted statements: running plus waiting for a connection. {@code null} = unbounded. */
+    private final Semaphore admitted;
+    private final Duration retryAfter;
+    private final RowMapper<User> userMapper;
+
+    public JdbcUserRepository(UserRepositoryBackendProperties.Jdbc props, RoleCatalog roleCatalog,
+                              Duration retryAfter, MeterRegistry meterRegistry) {
+        var config = new HikariConfig();
+        config.setPoolName("jdbc-users");
+        config.setJdbcUrl(props.getUrl());
+        config.setUsername(props.getUsername());
+        config.setPassword(props.getPassword());
+        config.setMaximumPoolSize(props.getMaxPoolSize());
+        config.setMinimumIdle(props.getMaxPoolSize());
+        config.setConnectionTimeout(props.getConnectionTimeout().toMillis());
+        config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        this.dataSource = new HikariDataSource(config);
+        this.jdbc = JdbcClient.create(dataSource);
+        this.roleCatalog = roleCatalog;
+        this.scheduler = Schedulers.fromExecutorService(
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("jdbc-users-", 0).factory()), "jdbc-users");
+        this.admitted = props.getMaxPending() < 0 ? null : new Semaphore(props.getMaxPoolSize() + props.getMaxPending());
+        this.retryAfter = retryAfter;
+        this.userMapper = (rs, n) -> User.builder()
+            .id(rs.getLong("id"))
+            .username(rs.getString("username"))
+            .email(rs.getString("email"))
+            .password(rs.getString("password"))
+            .roles(roleCatalog.rolesOf(rs.getLong("role_mask")))
+            .enabled(rs.getBoolean("enabled"))
+            .accountNonExpired(rs.getBoolean("account_non_expired"))
+            .accountNonLocked(rs.getBoolean("account_non_locked"))
+            .credentialsNonExpired(rs.getBoolean("credentials_non_expired"))
+            .createdAt(rs.getObject("created_at", LocalDateTime.class))
+            .updatedAt(rs.getObject("updated_at", LocalDateTime.class))
+            .lastLoginAt(rs.getObject("last_login_at", LocalDateTime.class))
+            .build();
+        log.info("JDBC user repository: {} connections to {}", props.getMaxPoolSize(), props.getUrl());
+    }
+
+    // ---- bridging: one virtual thread per statement ----
+
+    private <T> Mono<T> mono(Callable<T> statement) {
+        return Mono.defer(() -> {
+            if (admitted != null && !admitted.tryAcquire()) return Mono.error(overloaded());
+            // The permit goes back exactly once: after the statement, which holds its connection to the end even
+            // if the subscriber cancels, or on termination if the statement never got to run
+            var claimed = new AtomicBoolean();
+            return Mono.fromCallable(() -> {
+                    if (!claimed.compareAndSet(false, true)) return null;
+                    try {
+                        return statement.call();
+                    } finally {
+                        release();
+                    }
+                })
+                .subscribeOn(scheduler)
+                .doFinally(__ -> {
+                    if (claimed.compareAndSet(false, true)) release();
+                })
+                .onErrorMap(CannotGetJdbcConnectionException.class, e -> overloaded());
+        });
+    }
+
+    private void release() {
+        if (admitted != null) admitted.release();
+    }
+
+    private <T> Flux<T> flux(Callable<List<T>> statement) {
+        return mono(statement).flatMapIterable(Function.identity());
+    }
+
+    private ServiceOverloadedException overloaded() {
+        return new ServiceOverloadedException("Database connection pool exhausted", retryAfter);
+    }
+
+    private Mono<User> one(String sql, Object... params) {
+        return mono(() -> jdbc.sql(sql).params(params).query(userMapper).optional().orElse(null));
+    }
+
+    private Mono<Boolean> exists(String sql, Object param) {
+        return mono(() -> jdbc.sql(sql).param(param).query(Integer.class).optional().isPresent());
+    }
+
+    // ---- finders ----
+
+    @Override
+    public Mono<User> findByUsername(String username) {
+        return one("SELECT " + COLUMNS + " FROM users WHERE username = ?", username);
+    }
+
+    @Override
+    public Mono<User> findByEmail(String email) {
+        return one("SELECT " + COLUMNS + " FROM users WHERE email = ?", email);
+    }
+
+    @Override
+    public Mono<Boolean> existsByUsername(String username) {
+        return exists("SELECT 1 FROM users WHERE username = ?", username);
+    }
+
+    @Override
+    public Mono<Boolean> existsByEmail(String email) {
+        return exists("SELECT 1 FROM users WHERE email = ?", email);
+    }
+
+    @Override
+    public Mono<User> findById(Long id) {
+        return one("SELECT " + COLUMNS + " FROM users WHERE id = ?", id);
+    }
+
+    @Override
+    public Mono<User> findById(Publisher<Long> id) {
+        return Mono.from(id).flatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Long id) {
+        return exists("SELECT 1 FROM users WHERE id = ?", id);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Publisher<Long> id) {
+        return Mono.from(id).flatMap(this::existsById);
+    }
+
+    @Override
+    public Flux<User> findAll() {
+        return flux(() -> jdbc.sql("SELECT " + COLUMNS + " FROM users ORDER BY id").query(userMapper).list());
+    }
+
+    @Override
+    public Flux<User> findAllById(Iterable<Long> ids) {
+        List<Long> list = toList(ids);
+        if (list.isEmpty()) return Flux.empty();
+        return flux(() -> jdbc.sql("SELECT " + COLUMNS + " FROM users WHERE id IN (:ids)")
+            .param("ids", list).query(userMapper).list());
+    }
+
+    @Override
+    public Flux<User> findAllById(Publisher<Long> idStream) {
+        return Flux.from(idStream).collectList().flatMapMany(this::findAllById);
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return mono(() -> jdbc.sql("SELECT COUNT(*) FROM users").query(Long.class).single());
+    }
+
+    @Override
+    public Flux<User> findPageAfter(long afterId, int limit) {
+        return flux(() -> jdbc.sql("SELECT " + COLUMNS + " FROM users WHERE id > ? ORDER BY id LIMIT ?")
+            .params(afterId, limit).query(userMapper).list());
+    }
+
+    @Override
+    public Flux<User> findPageByRole(int roleId, long afterId, int limit) {
+        return flux(() -> jdbc.sql("SELECT u.* FROM user_roles ur JOIN users u ON u.id = ur.user_id "
+                + "WHERE ur.role_id = ? AND ur.user_id > ? ORDER BY ur.user_id LIMIT ?")
+            .params(roleId, afterId, limit).query(userMapper).list());
+    }
+
+    // ---- writes ----
+
+    @Override
+    public Mono<User> updateOwned(Long id, String username, String email) {
+        return mono(() -> jdbc.sql("SELECT * FROM FINAL TABLE (UPDATE users SET email = COALESCE(:email, email) "
+                + "WHERE id = :id AND username = :username)")
+            .param("email", email)
+            .param("id", id)
+            .param("username", username)
+            .query(userMapper).optional().orElse(null));
+    }
+
+    @Override
+    public Mono<Integer> disableAll(Collection<Long> ids) {
+        if (ids.isEmpty()) return Mono.just(0);
+        return mono(() -> jdbc.sql("UPDATE users SET enabled = FALSE WHERE id IN (:ids) AND enabled = TRUE")
+            .param("ids", ids).update());
+    }
+
+    /** Inserts when the id is null, otherwise updates every column, like the R2DBC repository's save. */
+    @Override
+    public <S extends User> Mono<S> save(S user) {
+        return mono(() -> {
+            var statement = jdbc.sql(user.getId() == null
+                    ? "INSERT INTO users (username, email, password, role_mask, enabled, account_non_expired, "
+                        + "account_non_locked, credentials_non_expired, created_at, updated_at, last_login_at) VALUES "
+                        + "(:username, :email, :password, :roleMask, :enabled, :accountNonExpired, :accountNonLocked, "
+                        + ":credentialsNonExpired, :createdAt, :updatedAt, :lastLoginAt)"
+                    : "UPDATE users SET username = :username, email = :email, password = :password, role_mask = :roleMask, "
+                        + "enabled = :enabled, account_non_expired = :accountNonExpired, account_non_locked = :accountNonLocked, "
+                        + "credentials_non_expired = :credentialsNonExpired, created_at = :createdAt, updated_at = :updatedAt, "
+                        + "last_login_at = :lastLoginAt WHERE id = :id")
+                .param("id", user.getId())
+                .param("username", user.getUsername())
+                .param("email", user.getEmail())
+                .param("password", user.getPassword())
+                .param("roleMask", roleCatalog.maskOf(user.getRoles()))
+                .param("enabled", user.isEnabled())
+                .param("accountNonExpired", user.isAccountNonExpired())
+                .param("accountNonLocked", user.isAccountNonLocked())
+                .param("credentialsNonExpired", user.isCredentialsNonExpired())
+                .param("createdAt", user.getCreatedAt())
+                .param("updatedAt", user.getUpdatedAt())
+                .param("lastLoginAt", user.getLastLoginAt());
+            if (user.getId() == null) {
+                var keys = new GeneratedKeyHolder();
+                statement.update(keys, "id");
+                user.setId(keys.getKeyAs(Long.class));
+            } else if (statement.update() == 0) {
+                throw new TransientDataAccessResourceException(
+                    "Failed to update table [users]; Row with Id [" + user.getId() + "] does not exist");
+            }
+            return user;
+        });
+    }
+
+    @Override
+    public <S extends User> Flux<S> saveAll(Iterable<S> entities) {
+        return Flux.fromIterable(entities).concatMap(this::save);
+    }
+
+    @Override
+    public <S extends User> Flux<S> saveAll(Publisher<S> entityStream) {
+        return Flux.from(entityStream).concatMap(this::save);
+    }
+
+    @Override
+    public Mono<Void> deleteById(Long id) {
+        return mono(() -> jdbc.sql("DELETE FROM users WHERE id = ?").param(id).update()).then();
+    }
+
+    @Override
+    public Mono<Void> deleteById(Publisher<Long> id) {
+        return Mono.from(id).flatMap(this::deleteById);
+    }
+
+    @Override
+    public Mono<Void> delete(User entity) {
+        return deleteById(entity.getId());
+    }
+
+    @Override
+    public Mono<Void> deleteAllById(Iterable<? extends Long> ids) {
+        List<Long> list = toList(ids);
+        if (list.isEmpty()) return Mono.empty();
+        return mono(() -> jdbc.sql("DELETE FROM users WHERE id IN (:ids)").param("ids", list).update()).then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Iterable<? extends User> entities) {
+        List<Long> ids = new ArrayList<>();
+        entities.forEach(u -> ids.add(u.getId()));
+        return deleteAllById(ids);
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Publisher<? extends User> entityStream) {
+        return Flux.from(entityStream).map(User::getId).collectList().flatMap(this::deleteAllById);
+    }
+
+    @Override
+    public Mono<Void> deleteAll() {
+        return mono(() -> jdbc.sql("DELETE FROM users").update()).then();
+    }
+
+    private static List<Long> toList(Iterable<? extends Long> ids) {
+        List<Long> list = new ArrayList<>();
+        ids.forEach(list::add);
+        return list;
+    }
+
+    @Override
+    public void close() {
+        scheduler.dispose();
+        dataSource.close();
+    }
+}
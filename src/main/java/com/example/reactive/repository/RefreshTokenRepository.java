@@ -0,0 +1,31 @@
+package com.example.reactive.repository;
+
+import com.example.reactive.model.RefreshToken;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface RefreshTokenRepository extends ReactiveCrudRepository<RefreshToken, String> {
+
+    // jti is assigned by us, so save() would treat new rows as updates
+    @Modifying
+    @Query("INSERT INTO refresh_tokens (jti, user_id, expires_at) VALUES (:jti, :userId, :expiresAt)")
+    Mono<Integer> insert(String jti, Long userId, LocalDateTime expiresAt);
+
+    /** Deletes the row if it is still live and returns it; empty if unknown, already used or expired. */
+    @Query("SELECT * FROM OLD TABLE (DELETE FROM refresh_tokens WHERE jti = :jti AND expires_at > :now)")
+    Mono<RefreshToken> consume(String jti, LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM refresh_tokens WHERE user_id = :userId")
+    Mono<Integer> deleteByUserId(Long userId);
+
+    @Modifying
+    @Query("DELETE FROM refresh_tokens WHERE expires_at <= :now")
+    Mono<Integer> deleteExpired(LocalDateTime now);
+}
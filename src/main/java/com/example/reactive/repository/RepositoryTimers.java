@@ -0,0 +1,86 @@
+package com.example.reactive.repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-method call timers for a repository, as seen by its callers (cache hits included), tagged with the
+ * method name and outcome. Spring Data's own {@code spring.data.repository.invocations} covers the database side.
+ */
+final class RepositoryTimers {
+
+    private final String name;
+    private final String repository;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Method> methods = new ConcurrentHashMap<>();
+
+    RepositoryTimers(String name, String repository, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.repository = repository;
+        this.meterRegistry = meterRegistry;
+    }
+
+    <T> Mono<T> mono(String method, Mono<T> call) {
+        Method timers = timers(method);
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            // Callers often cancel right after the value arrives; that still counts as a success
+            boolean[] emitted = new boolean[1];
+            return call
+                .doOnNext(v -> emitted[0] = true)
+                .doFinally(signal -> record(switch (signal) {
+                    case ON_ERROR -> timers.error;
+                    case CANCEL -> emitted[0] ? timers.success : timers.cancelled;
+                    default -> emitted[0] ? timers.success : timers.empty;
+                }, start));
+        });
+    }
+
+    <T> Flux<T> flux(String method, Flux<T> call) {
+        Method timers = timers(method);
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            return call.doFinally(signal -> record(switch (signal) {
+                case ON_ERROR -> timers.error;
+                case CANCEL -> timers.cancelled;
+                default -> timers.success;
+            }, start));
+        });
+    }
+
+    private Method timers(String method) {
+        return methods.computeIfAbsent(method, Method::new);
+    }
+
+    private static void record(Timer timer, long start) {
+        timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private final class Method {
+        final Timer success;
+        final Timer empty;
+        final Timer error;
+        final Timer cancelled;
+
+        Method(String method) {
+            this.success = timer(method, "success");
+            this.empty = timer(method, "empty");
+            this.error = timer(method, "error");
+            this.cancelled = timer(method, "cancelled");
+        }
+
+        private Timer timer(String method, String outcome) {
+            return Timer.builder(name)
+                .tag("repository", repository)
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+        }
+    }
+}
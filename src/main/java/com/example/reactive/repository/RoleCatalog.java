@@ -0,0 +1,153 @@
+package com.example.reactive.repository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * In-memory copy of the {@code roles} table: stable role ids, which are the bit positions of
+ * {@code users.role_mask}. Loaded at startup; new role names are added to the table by {@link #register}
+ * before anything is written with them, so mask conversion normally never touches the database. Roles
+ * registered by other instances are picked up when a mask first shows one (see {@link #rolesOf}).
+ */
+@Slf4j
+@Component
+@DependsOnDatabaseInitialization
+@RequiredArgsConstructor
+public class RoleCatalog {
+
+    /** Bits 0..62, so masks stay positive. Matches the CHECK on roles.id. */
+    public static final int MAX_ROLES = 63;
+
+    private final DatabaseClient databaseClient;
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<String> names = new AtomicReferenceArray<>(MAX_ROLES);
+    /** Role sets handed out for a mask; shared and unmodifiable, so reading a row allocates nothing. */
+    private final Map<Long, Set<String>> sets = new ConcurrentHashMap<>();
+    private final AtomicBoolean reloading = new AtomicBoolean();
+
+    @PostConstruct
+    void load() {
+        reload().doOnNext(n -> log.info("Loaded {} roles", n)).block();
+    }
+
+    /** Reads the whole table again; picks up roles other instances registered. */
+    private Mono<Long> reload() {
+        return databaseClient.sql("SELECT id, name FROM roles")
+            .map((row, meta) -> {
+                remember(row.get("id", Integer.class), row.get("name", String.class));
+                return 1;
+            })
+            .all()
+            .count();
+    }
+
+    /** Role id for a stored role name, or {@code null} if no user ever had it. */
+    public Integer findId(String name) {
+        return ids.get(name);
+    }
+
+    /**
+     * Makes sure every name has a row in {@code roles}, allocating the next free id for new ones.
+     * Call before writing a user whose roles may include names not seen before.
+     */
+    public Mono<Void> register(Collection<String> roles) {
+        if (roles == null || roles.stream().allMatch(ids::containsKey)) return Mono.empty();
+        return Flux.fromIterable(roles)
+            .filter(name -> !ids.containsKey(name))
+            .concatMap(this::insert)
+            .then();
+    }
+
+    private Mono<Integer> insert(String name) {
+        // Concurrent registrations race for MAX(id) + 1; the loser hits the PK or name constraint and retries
+        return databaseClient.sql("INSERT INTO roles (id, name) SELECT COALESCE(MAX(id) + 1, 0), :name FROM roles "
+                + "WHERE NOT EXISTS (SELECT 1 FROM roles WHERE name = :name)")
+            .bind("name", name)
+            .fetch().rowsUpdated()
+            .retryWhen(Retry.max(3)
+                .filter(DataIntegrityViolationException.class::isInstance)
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+            .then(databaseClient.sql("SELECT id FROM roles WHERE name = :name")
+                .bind("name", name)
+                .map((row, meta) -> row.get("id", Integer.class))
+                .one())
+            .doOnNext(id -> remember(id, name))
+            // Only a full id space is the caller's problem; any other violation is reported as it is
+            .onErrorResume(DataIntegrityViolationException.class, e -> databaseClient.sql("SELECT COUNT(*) FROM roles")
+                .map((row, meta) -> row.get(0, Long.class))
+                .one()
+                .flatMap(count -> Mono.error(count >= MAX_ROLES
+                    ? new IllegalArgumentException("Cannot add role " + name + ": at most " + MAX_ROLES + " roles")
+                    : e)));
+    }
+
+    private void remember(int id, String name) {
+        names.set(id, name);
+        ids.put(name, id);
+    }
+
+    /** Mask of registered role names; blank names are ignored, unregistered ones are an error. */
+    public long maskOf(Collection<String> roles) {
+        long mask = 0;
+        if (roles == null) return mask;
+        for (String role : roles) {
+            String name = role.trim();
+            if (name.isEmpty()) continue;
+            Integer id = ids.get(name);
+            if (id == null) throw new IllegalArgumentException("Unregistered role: " + name);
+            mask |= 1L << id;
+        }
+        return mask;
+    }
+
+    /**
+     * Role names of a stored mask. A bit this instance has no name for was registered by another one since
+     * we loaded: rather than drop it (and lose the role on the next save), the read fails and the catalog is
+     * reloaded in the background, so a retry sees it.
+     */
+    public Set<String> rolesOf(long mask) {
+        Set<String> existing = sets.get(mask);
+        return existing != null ? existing : sets.computeIfAbsent(mask, m -> {
+            Set<String> roles = new LinkedHashSet<>();
+            for (long bits = m; bits != 0; bits &= bits - 1) {
+                int id = Long.numberOfTrailingZeros(bits);
+                String name = names.get(id);
+                if (name == null) {
+                    reloadInBackground();
+                    throw new IllegalStateException("Unknown role id " + id + " in role mask " + m
+                        + "; reloading the role catalog");
+                }
+                roles.add(name);
+            }
+            return Collections.unmodifiableSet(roles);
+        });
+    }
+
+    private void reloadInBackground() {
+        if (!reloading.compareAndSet(false, true)) return;
+        reload()
+            // Mask conversion runs on whatever thread reads the row; the query must not run there
+            .subscribeOn(Schedulers.boundedElastic())
+            .doFinally(signal -> reloading.set(false))
+            .subscribe(n -> log.info("Reloaded {} roles", n), e -> log.warn("Reloading the role catalog failed", e));
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.reactive.repository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Startup migration from the legacy comma-separated {@code users.roles} column to {@code role_mask}
+ * and the {@code user_roles} index. Each migrated row has its legacy value cleared, so the migration
+ * is idempotent; the index is rebuilt from the masks every time, which also repairs any drift.
+ * Runs before the server accepts requests.
+ */
+@Slf4j
+@Component
+@DependsOnDatabaseInitialization
+@RequiredArgsConstructor
+public class RoleStorageMigration {
+
+    private final DatabaseClient databaseClient;
+    private final RoleCatalog roleCatalog;
+    private final UserRoleIndex userRoleIndex;
+
+    private record LegacyRoles(long userId, List<String> roles) {
+    }
+
+    @PostConstruct
+    void migrate() {
+        databaseClient.sql("SELECT id, roles FROM users WHERE roles IS NOT NULL")
+            .map((row, meta) -> new LegacyRoles(row.get("id", Long.class), split(row.get("roles", String.class))))
+            .all()
+            .concatMap(legacy -> roleCatalog.register(legacy.roles())
+                .then(Mono.defer(() -> databaseClient
+                    .sql("UPDATE users SET role_mask = BITOR(role_mask, CAST(:mask AS BIGINT)), roles = NULL WHERE id = :id")
+                    .bind("mask", roleCatalog.maskOf(legacy.roles()))
+                    .bind("id", legacy.userId())
+                    .then()))
+                .thenReturn(legacy.userId()))
+            .count()
+            .flatMap(migrated -> userRoleIndex.reindexAll()
+                .doOnNext(indexed -> log.info("Migrated legacy roles of {} users; role index has {} entries",
+                    migrated, indexed)))
+            .block();
+    }
+
+    private static List<String> split(String roles) {
+        return Arrays.stream(roles.split(",")).map(String::trim).filter(s -> !s.isEmpty()).toList();
+    }
+}
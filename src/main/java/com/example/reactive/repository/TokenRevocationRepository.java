@@ -0,0 +1,28 @@
+package com.example.reactive.repository;
+
+import com.example.reactive.model.TokenRevocation;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface TokenRevocationRepository extends ReactiveCrudRepository<TokenRevocation, Long> {
+
+    /**
+     * Live rows added after {@code afterId} or revoked after {@code revokedAfter}, in id order, for incremental
+     * refresh. The second condition re-reads recent rows whose id was taken before {@code afterId} but that
+     * committed after it.
+     */
+    @Query("SELECT * FROM token_revocations WHERE (id > :afterId OR revoked_at > :revokedAfter) "
+        + "AND expires_at > :now ORDER BY id")
+    Flux<TokenRevocation> findLiveAfter(long afterId, LocalDateTime revokedAfter, LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM token_revocations WHERE expires_at <= :now")
+    Mono<Integer> deleteExpired(LocalDateTime now);
+}
@@ -1,14 +1,41 @@
 package com.example.reactive.repository;
 
 import com.example.reactive.model.User;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Collection;
+
 @Repository
 public interface UserRepository extends ReactiveCrudRepository<User, Long> {
     Mono<User> findByUsername(String username);
     Mono<User> findByEmail(String email);
     Mono<Boolean> existsByUsername(String username);
     Mono<Boolean> existsByEmail(String email);
+
+    /**
+     * Updates the email (null keeps the current value) of the row with this id, but only if it
+     * belongs to {@code username}. Returns the updated row, or empty if no row matched.
+     */
+    @Query("SELECT * FROM FINAL TABLE (UPDATE users SET email = COALESCE(:email, email) "
+        + "WHERE id = :id AND username = :username)")
+    Mono<User> updateOwned(Long id, String username, String email);
+
+    /** Keyset page: the next {@code limit} users by id after {@code afterId}. */
+    @Query("SELECT * FROM users WHERE id > :afterId ORDER BY id LIMIT :limit")
+    Flux<User> findPageAfter(long afterId, int limit);
+
+    /** Keyset page of the users holding a role, served from the user_roles index. */
+    @Query("SELECT u.* FROM user_roles ur JOIN users u ON u.id = ur.user_id "
+        + "WHERE ur.role_id = :roleId AND ur.user_id > :afterId ORDER BY ur.user_id LIMIT :limit")
+    Flux<User> findPageByRole(int roleId, long afterId, int limit);
+
+    /** Disables the given users that are still enabled; returns how many were. */
+    @Modifying
+    @Query("UPDATE users SET enabled = FALSE WHERE id IN (:ids) AND enabled = TRUE")
+    Mono<Integer> disableAll(Collection<Long> ids);
 }
@@ -0,0 +1,57 @@
+package com.example.reactive.repository;
+
+import com.example.reactive.model.User;
+import lombok.RequiredArgsConstructor;
+import org.reactivestreams.Publisher;
+import org.springframework.data.r2dbc.mapping.OutboundRow;
+import org.springframework.data.r2dbc.mapping.event.AfterSaveCallback;
+import org.springframework.data.r2dbc.mapping.event.BeforeConvertCallback;
+import org.springframework.data.relational.core.sql.SqlIdentifier;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Keeps {@code user_roles} in step with {@code users.role_mask}.
+ * <p>
+ * Repository saves are covered by the entity callbacks: new role names are registered before the row
+ * is converted, and the row is reindexed after it is written. Code that writes role_mask with its own
+ * SQL must call {@link #reindex} itself, in the same transaction where there is one.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserRoleIndex implements BeforeConvertCallback<User>, AfterSaveCallback<User> {
+
+    private static final String INDEX = "INSERT INTO user_roles (role_id, user_id) "
+        + "SELECT r.id, u.id FROM users u JOIN roles r ON BITAND(u.role_mask, LSHIFT(CAST(1 AS BIGINT), r.id)) <> 0";
+
+    private final DatabaseClient databaseClient;
+    private final RoleCatalog roleCatalog;
+
+    public Mono<Void> reindex(Collection<Long> userIds) {
+        if (userIds.isEmpty()) return Mono.empty();
+        return databaseClient.sql("DELETE FROM user_roles WHERE user_id IN (:ids)")
+            .bind("ids", userIds)
+            .then()
+            .then(databaseClient.sql(INDEX + " WHERE u.id IN (:ids)").bind("ids", userIds).then());
+    }
+
+    /** Rebuilds the whole index; used by the startup migration. */
+    public Mono<Long> reindexAll() {
+        return databaseClient.sql("DELETE FROM user_roles").then()
+            .then(databaseClient.sql(INDEX).fetch().rowsUpdated());
+    }
+
+    @Override
+    public Publisher<User> onBeforeConvert(User user, SqlIdentifier table) {
+        return roleCatalog.register(user.getRoles()).thenReturn(user);
+    }
+
+    @Override
+    public Publisher<User> onAfterSave(User user, OutboundRow outboundRow, SqlIdentifier table) {
+        return reindex(List.of(user.getId())).thenReturn(user);
+    }
+}
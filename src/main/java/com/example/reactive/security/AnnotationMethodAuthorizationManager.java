@@ -0,0 +1,80 @@
+package com.example.reactive.security;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.reactivestreams.Publisher;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.authorization.ReactiveAuthorizationManager;
+import org.springframework.security.authorization.method.AuthorizationAdvisor;
+import org.springframework.security.authorization.method.AuthorizationInterceptorsOrder;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeReactiveMethodInterceptor;
+import org.springframework.security.core.Authentication;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Base for method authorization driven by a typed annotation instead of a SpEL expression. The annotation is
+ * resolved into a rule of type {@code R} when the pointcut is matched, i.e. while beans are being proxied at
+ * startup, so an invocation only looks the rule up by method.
+ */
+abstract class AnnotationMethodAuthorizationManager<R> implements ReactiveAuthorizationManager<MethodInvocation> {
+
+    static final Mono<AuthorizationResult> DENIED_MONO = Mono.just(RoleSetAuthorizationManager.DENIED);
+
+    private final Map<Method, R> rules = new ConcurrentHashMap<>();
+
+    /** The rule for {@code method} (the most specific one on {@code targetClass}), or {@code null} if not annotated. */
+    abstract R compile(Method method, Class<?> targetClass);
+
+    abstract Mono<AuthorizationResult> authorize(Mono<Authentication> authentication, MethodInvocation invocation, R rule);
+
+    /** Interceptor for the annotated methods, ordered with {@code @PreAuthorize}. */
+    public AuthorizationAdvisor interceptor() {
+        var interceptor = new AuthorizationManagerBeforeReactiveMethodInterceptor(new StaticMethodMatcherPointcut() {
+            @Override
+            public boolean matches(Method method, Class<?> targetClass) {
+                return rule(method, targetClass) != null;
+            }
+        }, this);
+        interceptor.setOrder(AuthorizationInterceptorsOrder.PRE_AUTHORIZE.getOrder());
+        return interceptor;
+    }
+
+    @Override
+    public Mono<AuthorizationResult> authorize(Mono<Authentication> authentication, MethodInvocation invocation) {
+        R rule = rules.get(invocation.getMethod());
+        if (rule == null) {
+            Object target = invocation.getThis();
+            rule = rule(invocation.getMethod(), target == null ? null : AopProxyUtils.ultimateTargetClass(target));
+        }
+        return rule == null ? DENIED_MONO : authorize(authentication, invocation, rule);
+    }
+
+    @Override
+    @Deprecated
+    public Mono<AuthorizationDecision> check(Mono<Authentication> authentication, MethodInvocation invocation) {
+        return RoleSetAuthorizationManager.asDecision(authorize(authentication, invocation));
+    }
+
+    private R rule(Method method, Class<?> targetClass) {
+        R rule = rules.get(method);
+        if (rule != null) return rule;
+        rule = compile(AopUtils.getMostSpecificMethod(method, targetClass), targetClass);
+        if (rule != null) rules.put(method, rule);
+        return rule;
+    }
+
+    /** Method security can only hold back a result it hasn't produced yet: annotated methods must be reactive. */
+    static void requireReactive(Method method, Class<?> annotation) {
+        if (!Publisher.class.isAssignableFrom(method.getReturnType())) {
+            throw new IllegalStateException("@" + annotation.getSimpleName() + " method " + method
+                + " must return a Mono or Flux");
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.reactive.security;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size Bloom filter over strings. A {@code false} from {@link #mightContain} is definite.
+ * Keys are hashed with a per-namespace seed instead of a prefix, so lookups allocate nothing.
+ * Bits live in an {@link AtomicLongArray}: one writer may add while any number of threads read.
+ */
+final class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashes;
+    private final int capacity;
+
+    BloomFilter(int expectedEntries, double falsePositiveRate) {
+        this.capacity = Math.max(1, expectedEntries);
+        double ln2 = Math.log(2);
+        long m = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (ln2 * ln2));
+        this.bits = new AtomicLongArray((int) Math.max(1, (m + 63) >>> 6));
+        this.bitCount = bits.length() * 64L;
+        this.hashes = Math.max(1, (int) Math.round((double) bitCount / capacity * ln2));
+    }
+
+    /** Entries it was sized for; past that the false positive rate climbs. */
+    int capacity() {
+        return capacity;
+    }
+
+    void add(long seed, String key) {
+        long h = hash(seed, key);
+        int h1 = (int) h, h2 = (int) (h >>> 32);
+        for (int i = 0; i < hashes; i++) {
+            long bit = index(h1 + i * h2);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            while (((current = bits.get(word)) & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                // lost a race with another writer on the same word; retry
+            }
+        }
+    }
+
+    boolean mightContain(long seed, String key) {
+        long h = hash(seed, key);
+        int h1 = (int) h, h2 = (int) (h >>> 32);
+        for (int i = 0; i < hashes; i++) {
+            long bit = index(h1 + i * h2);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    private long index(int combined) {
+        return (combined & 0x7fffffffL) % bitCount;
+    }
+
+    /** FNV-1a over the chars, finished with the MurmurHash3 fmix64 avalanche. */
+    private static long hash(long seed, String key) {
+        long h = 0xcbf29ce484222325L ^ seed;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.reactive.security;
+
+import com.example.reactive.config.LoginThrottleProperties;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The address a request came from, for per-address login throttling. {@code X-Forwarded-For} is only read
+ * when the peer is a trusted proxy, and then from the right: the first entry no trusted proxy added is the
+ * client, anything left of it may have been made up by the client.
+ */
+@Component
+public class ClientAddressResolver {
+
+    private static final String X_FORWARDED_FOR = "X-Forwarded-For";
+
+    private final Set<String> trustedProxies;
+
+    public ClientAddressResolver(LoginThrottleProperties props) {
+        this.trustedProxies = Set.copyOf(props.getTrustedProxies());
+    }
+
+    /** {@code null} if the peer address is unknown. */
+    public String resolve(ServerHttpRequest request) {
+        var remote = request.getRemoteAddress();
+        if (remote == null || remote.getAddress() == null) return null;
+        String address = remote.getAddress().getHostAddress();
+        if (!trustedProxies.contains(address)) return address;
+
+        List<String> headers = request.getHeaders().getOrDefault(X_FORWARDED_FOR, List.of());
+        for (int i = headers.size() - 1; i >= 0; i--) {
+            String[] hops = headers.get(i).split(",");
+            for (int j = hops.length - 1; j >= 0; j--) {
+                String hop = hops[j].trim();
+                if (hop.isEmpty()) continue;
+                address = hop;
+                if (!trustedProxies.contains(hop)) return hop;
+            }
+        }
+        // Every hop is a trusted proxy: the leftmost one is as close to the client as we get
+        return address;
+    }
+}
@@ -2,6 +2,7 @@ package com.example.reactive.security;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationResult;
 import org.springframework.security.authorization.ReactiveAuthorizationManager;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.web.server.authorization.AuthorizationContext;
@@ -13,12 +14,16 @@ import reactor.core.publisher.Mono;
 public class CustomReactiveAuthorizationManager implements ReactiveAuthorizationManager<AuthorizationContext> {
 
     @Override
-    public Mono<AuthorizationDecision> check(Mono<Authentication> authentication, AuthorizationContext context) {
+    public Mono<AuthorizationResult> authorize(Mono<Authentication> authentication, AuthorizationContext context) {
         return authentication
-            .map(auth -> {
-                boolean isAdmin = auth.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
-                return new AuthorizationDecision(isAdmin);
-            })
-            .defaultIfEmpty(new AuthorizationDecision(false));
+            .map(auth -> RoleSetAuthorizationManager.decision(
+                RoleSetAuthentication.hasAuthority(auth, RoleRegistry.ROLE_ADMIN)))
+            .defaultIfEmpty(RoleSetAuthorizationManager.DENIED);
+    }
+
+    @Override
+    @Deprecated
+    public Mono<AuthorizationDecision> check(Mono<Authentication> authentication, AuthorizationContext context) {
+        return RoleSetAuthorizationManager.asDecision(authorize(authentication, context));
     }
 }
@@ -0,0 +1,169 @@
+package com.example.reactive.security;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Verifies the compact HS256 tokens issued by {@link JwtService} with one key of the {@link JwtKeyRing}
+ * without building a JJWT parser or a generic claims map. Anything that doesn't look exactly like one of our own tokens
+ * (other header, padding, odd claim types, ...) is handed back to the caller by returning
+ * {@code null}, so JJWT remains the reference for every edge case and both engines agree.
+ */
+final class HmacTokenVerifier {
+
+    private static final int SIGNATURE_BYTES = 32;
+    private static final int SIGNATURE_CHARS = 43;
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private static final byte[] BASE64URL = new byte[128];
+    static {
+        java.util.Arrays.fill(BASE64URL, (byte) -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) BASE64URL[alphabet.charAt(i)] = (byte) i;
+    }
+
+    /** Encoded header JJWT writes for this key, e.g. base64url of {"alg":"HS256"} for the unkeyed one. */
+    private final String header;
+    private final ThreadLocal<Scratch> scratch;
+
+    HmacTokenVerifier(SecretKey key, String header) {
+        this.header = header;
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(key));
+    }
+
+    /** Whether the token carries exactly this key's header, i.e. this verifier is the one to ask. */
+    boolean accepts(String token) {
+        return token.startsWith(header) && token.length() > header.length() && token.charAt(header.length()) == '.';
+    }
+
+    /**
+     * @return the claims, or {@code null} if the token should be verified by JJWT instead
+     * @throws RuntimeException with JwtService's messages when the token is definitely rejected
+     */
+    TokenClaims verify(String token, long nowMillis, long clockSkewMillis) {
+        if (!accepts(token)) return null;
+        int dot2 = token.indexOf('.', header.length() + 1);
+        if (dot2 < 0 || token.length() - dot2 - 1 != SIGNATURE_CHARS) return null;
+
+        Scratch s = scratch.get();
+        byte[] buf = s.buffer(dot2);
+        for (int i = 0; i < dot2; i++) {
+            char c = token.charAt(i);
+            if (c >= 128) return null;
+            buf[i] = (byte) c;
+        }
+        if (decode(token, dot2 + 1, token.length(), s.actual) != SIGNATURE_BYTES) return null;
+        try {
+            s.mac.update(buf, 0, dot2);
+            s.mac.doFinal(s.expected, 0);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+        if (!MessageDigest.isEqual(s.expected, s.actual)) {
+            throw JwtService.invalidToken();
+        }
+
+        // Signature is good: the signing input is no longer needed, reuse the buffer for the payload
+        int len = decode(token, header.length() + 1, dot2, buf);
+        if (len < 0) return null;
+        TokenClaims claims = parse(buf, len);
+        if (claims == null) return null;
+        if (claims.expiresAt() != 0 && nowMillis - clockSkewMillis > claims.expiresAt() * 1000) {
+            throw JwtService.tokenExpired();
+        }
+        return claims;
+    }
+
+    private static TokenClaims parse(byte[] json, int len) {
+        String sub = null, iss = null, type = null, jti = null;
+        List<String> roles = null;
+        long exp = 0, iat = 0;
+        try (JsonParser p = JSON.createParser(json, 0, len)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) return null;
+            JsonToken t;
+            while ((t = p.nextToken()) == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                JsonToken v = p.nextToken();
+                switch (field) {
+                    case "sub" -> { if (v != JsonToken.VALUE_STRING) return null; sub = p.getText(); }
+                    case "iss" -> { if (v != JsonToken.VALUE_STRING) return null; iss = p.getText(); }
+                    case "type" -> { if (v != JsonToken.VALUE_STRING) return null; type = p.getText(); }
+                    case "jti" -> { if (v != JsonToken.VALUE_STRING) return null; jti = p.getText(); }
+                    case "exp", "iat" -> {
+                        if (v != JsonToken.VALUE_NUMBER_INT || p.getNumberType() != JsonParser.NumberType.INT
+                                && p.getNumberType() != JsonParser.NumberType.LONG) return null;
+                        long secs = p.getLongValue();
+                        if (secs <= 0 || secs > Long.MAX_VALUE / 1000) return null;
+                        if (field.equals("exp")) exp = secs; else iat = secs;
+                    }
+                    case "roles" -> {
+                        if (v != JsonToken.START_ARRAY) return null;
+                        roles = new ArrayList<>(2);
+                        while ((v = p.nextToken()) == JsonToken.VALUE_STRING) roles.add(p.getText());
+                        if (v != JsonToken.END_ARRAY) return null;
+                    }
+                    // Claims JJWT itself validates or treats specially: let it decide
+                    case "nbf", "aud" -> { return null; }
+                    default -> p.skipChildren();
+                }
+            }
+            if (t != JsonToken.END_OBJECT || p.nextToken() != null) return null;
+        } catch (IOException e) {
+            return null;
+        }
+        return new TokenClaims(sub, roles == null ? null : List.copyOf(roles), exp, iat, iss, type, jti);
+    }
+
+    /**
+     * Strict unpadded base64url decode of {@code src[from, to)} into {@code dst}.
+     * Returns the byte count, or -1 on any character, length or trailing-bit irregularity.
+     */
+    private static int decode(String src, int from, int to, byte[] dst) {
+        int n = to - from;
+        if (n % 4 == 1 || (n * 3) / 4 > dst.length) return -1;
+        int out = 0, acc = 0, bits = 0;
+        for (int i = from; i < to; i++) {
+            char c = src.charAt(i);
+            int v = c < 128 ? BASE64URL[c] : -1;
+            if (v < 0) return -1;
+            acc = (acc << 6) | v;
+            bits += 6;
+            if (bits >= 8) {
+                bits -= 8;
+                dst[out++] = (byte) (acc >> bits);
+                acc &= (1 << bits) - 1;
+            }
+        }
+        return acc == 0 ? out : -1;
+    }
+
+    private static final class Scratch {
+        final Mac mac;
+        final byte[] expected = new byte[SIGNATURE_BYTES];
+        final byte[] actual = new byte[SIGNATURE_BYTES];
+        byte[] buf = new byte[512];
+
+        Scratch(SecretKey key) {
+            try {
+                mac = Mac.getInstance("HmacSHA256");
+                mac.init(key);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        byte[] buffer(int size) {
+            if (buf.length < size) buf = new byte[Integer.highestOneBit(size) << 1];
+            return buf;
+        }
+    }
+}
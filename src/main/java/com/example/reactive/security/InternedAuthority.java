@@ -0,0 +1,42 @@
+package com.example.reactive.security;
+
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * A {@link GrantedAuthority} registered once in {@link RoleRegistry}; {@link #index()} is its bit in a {@link RoleSet}.
+ * Equality follows the authority string so it mixes freely with {@code SimpleGrantedAuthority}-based checks.
+ */
+public final class InternedAuthority implements GrantedAuthority {
+
+    private final String authority;
+    private final int index;
+
+    InternedAuthority(String authority, int index) {
+        this.authority = authority;
+        this.index = index;
+    }
+
+    @Override
+    public String getAuthority() {
+        return authority;
+    }
+
+    public int index() {
+        return index;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof GrantedAuthority other && authority.equals(other.getAuthority()));
+    }
+
+    @Override
+    public int hashCode() {
+        return authority.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return authority;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.reactive.security;
+
+import org.springframework.security.core.AuthenticationException;
+
+/**
+ * A bearer token we won't accept. Rejections are routine (expired clients, scanners), so the instances
+ * are preallocated and carry no stack trace; compare by identity.
+ */
+final class InvalidTokenException extends AuthenticationException {
+
+    static final InvalidTokenException EXPIRED = new InvalidTokenException("Token expired");
+    static final InvalidTokenException INVALID = new InvalidTokenException("Invalid token");
+    static final InvalidTokenException REVOKED = new InvalidTokenException("Token revoked");
+
+    private InvalidTokenException(String message) {
+        // A null cause also locks initCause, so the shared instances can't be mutated that way
+        super(message, null);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -1,24 +1,20 @@
 package com.example.reactive.security;
 
-import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.ReactiveAuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
-import java.util.List;
-import java.util.stream.Collectors;
-
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationManager implements ReactiveAuthenticationManager {
 
     private final JwtService jwtService;
+    private final JwtClaimsCache claimsCache;
+    private final TokenRevocationList revocations;
 
     @Override
     public Mono<Authentication> authenticate(Authentication authentication) {
@@ -30,19 +26,25 @@ public class JwtAuthenticationManager implements ReactiveAuthenticationManager {
     }
 
     private Mono<Authentication> toAuth(String token) {
+        var digest = claimsCache.digest(token);
+        var cached = claimsCache.get(digest);
+        if (cached != null) {
+            // A cached token may have been revoked since it was verified
+            return revocations.isRevoked(cached.claims())
+                ? Mono.error(InvalidTokenException.REVOKED)
+                : Mono.just(buildAuth(cached, token));
+        }
         return jwtService.validateAndGetClaims(token)
-            .map(claims -> buildAuth(claims, token));
+            // Refresh tokens are only good for /api/auth/refresh
+            .filter(claims -> "access".equals(claims.type()))
+            .switchIfEmpty(Mono.error(JwtService::invalidToken))
+            .filter(claims -> !revocations.isRevoked(claims))
+            .switchIfEmpty(Mono.error(InvalidTokenException.REVOKED))
+            .map(claims -> claimsCache.put(digest, token, claims, RoleRegistry.fromRoles(claims.roles())))
+            .map(entry -> buildAuth(entry, token));
     }
 
-    private Authentication buildAuth(Claims claims, String token) {
-        String username = claims.getSubject();
-        @SuppressWarnings("unchecked")
-        List<String> roles = claims.get("roles", List.class);
-        var authorities = roles == null ? List.<SimpleGrantedAuthority>of() :
-            roles.stream()
-                .map(r -> r.startsWith("ROLE_") ? r : "ROLE_" + r)
-                .map(SimpleGrantedAuthority::new)
-                .collect(Collectors.toList());
-        return new UsernamePasswordAuthenticationToken(username, token, authorities);
+    private Authentication buildAuth(JwtClaimsCache.CachedToken entry, String token) {
+        return new RoleSetAuthentication(entry.claims().subject(), token, entry.roles());
     }
 }
@@ -0,0 +1,110 @@
+package com.example.reactive.security;
+
+import com.example.reactive.config.JwtProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache of already-verified tokens, keyed by the SHA-256 digest of the raw token string.
+ * Entries expire exactly when the token's {@code exp} passes, so a hit never extends a token's life.
+ */
+@Slf4j
+@Component
+public class JwtClaimsCache {
+
+    /** Rough per-entry overhead (key, node, claims) on top of the token text. */
+    private static final long ENTRY_OVERHEAD_BYTES = 512;
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final Cache<TokenDigest, CachedToken> cache;
+
+    public JwtClaimsCache(JwtProperties props, MeterRegistry meterRegistry) {
+        var cfg = props.getCache();
+        if (!cfg.isEnabled()) {
+            this.cache = null;
+            return;
+        }
+        // Caffeine allows a single bound, so every entry weighs at least maxMemory/maxEntries:
+        // that caps the count at maxEntries while the byte estimate still caps total memory.
+        long maxBytes = cfg.getMaxMemory().toBytes();
+        long minWeight = Math.max(1, maxBytes / Math.max(1, cfg.getMaxEntries()));
+        this.cache = Caffeine.newBuilder()
+            .maximumWeight(maxBytes)
+            .weigher((TokenDigest k, CachedToken v) -> (int) Math.min(Integer.MAX_VALUE, Math.max(minWeight, v.weight())))
+            .expireAfter(new UntilTokenExpiry())
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.claims");
+    }
+
+    public TokenDigest digest(String token) {
+        MessageDigest md = SHA256.get();
+        ByteBuffer d = ByteBuffer.wrap(md.digest(token.getBytes(StandardCharsets.UTF_8)));
+        return new TokenDigest(d.getLong(), d.getLong(), d.getLong(), d.getLong());
+    }
+
+    /** Cached entry for the token, or {@code null} if absent, expired or caching is disabled. */
+    public CachedToken get(TokenDigest digest) {
+        return cache == null ? null : cache.getIfPresent(digest);
+    }
+
+    public CachedToken put(TokenDigest digest, String token, TokenClaims claims, RoleSet roles) {
+        var entry = new CachedToken(claims, roles,
+            claims.expiresAt() == 0 ? Long.MIN_VALUE : claims.expiresAt() * 1000,
+            ENTRY_OVERHEAD_BYTES + 2L * token.length());
+        // Tokens without exp would never leave the cache on their own; don't keep them
+        if (cache != null && entry.expiresAtMillis() != Long.MIN_VALUE) {
+            cache.put(digest, entry);
+        }
+        return entry;
+    }
+
+    /** Tokens signed with a key that is gone must not stay valid through the cache. */
+    @EventListener
+    void onKeysRotated(JwtKeyRing.KeysRotated event) {
+        if (cache == null) return;
+        log.info("JWT keys {} removed; dropping {} cached tokens", event.removedKids(), cache.estimatedSize());
+        cache.invalidateAll();
+    }
+
+    public record TokenDigest(long w0, long w1, long w2, long w3) { }
+
+    public record CachedToken(TokenClaims claims, RoleSet roles, long expiresAtMillis, long weight) { }
+
+    private static final class UntilTokenExpiry implements Expiry<TokenDigest, CachedToken> {
+        @Override
+        public long expireAfterCreate(TokenDigest key, CachedToken value, long currentTime) {
+            long remaining = value.expiresAtMillis() - System.currentTimeMillis();
+            return remaining <= 0 ? 0 : TimeUnit.MILLISECONDS.toNanos(remaining);
+        }
+
+        @Override
+        public long expireAfterUpdate(TokenDigest key, CachedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(TokenDigest key, CachedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.example.reactive.security;
+
+import com.example.reactive.config.JwtProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SecureDigestAlgorithm;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The keys tokens are signed and verified with, selected by the {@code kid} header.
+ * <p>
+ * Keys come from {@code jwt.key-ring.file}, polled every {@code jwt.key-ring.reload-interval} and swapped in
+ * atomically when it changes; a file that fails to parse leaves the current keys in place. Format:
+ * <pre>
+ * {
+ *   "active": "2024-06",
+ *   "acceptUnkeyed": true,
+ *   "keys": [
+ *     {"kid": "2024-06", "alg": "HS256", "secret": "&lt;base64, at least 32 bytes&gt;"},
+ *     {"kid": "2024-05", "alg": "HS256", "secret": "...", "retired": true},
+ *     {"kid": "ed-1", "alg": "EdDSA", "publicKey": "&lt;X.509 DER, base64 or PEM&gt;", "privateKey": "&lt;PKCS#8&gt;"},
+ *     {"kid": "ec-1", "alg": "ES256", "publicKey": "..."}
+ *   ]
+ * }
+ * </pre>
+ * New tokens are signed with the {@code active} key. Any other listed key that isn't {@code retired}
+ * still verifies. An asymmetric key without {@code privateKey} can only verify, so nodes that never issue
+ * tokens need not hold the signing secret.
+ * <p>
+ * {@code jwt.secret} is the signing key if no file is configured. Once there is a file it only verifies tokens
+ * without a {@code kid} (those issued before the file existed), and only while the file says
+ * {@code "acceptUnkeyed": true}; drop that once those tokens have expired. Removing or retiring a key, or the
+ * kid-less one, publishes {@link KeysRotated}, so caches of verified tokens can be dropped.
+ */
+@Slf4j
+@Component
+public class JwtKeyRing {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final JwtProperties props;
+    private final ApplicationEventPublisher events;
+    private volatile Snapshot current;
+    private FileStamp loadedStamp;
+
+    /** A key installed in the ring; {@code signingKey} is null when this node may only verify with it. */
+    record KeyEntry(String kid, SecureDigestAlgorithm<Key, Key> alg, Key verificationKey, Key signingKey) { }
+
+    /** Immutable; replaced as a whole on reload. */
+    record Snapshot(Map<String, KeyEntry> byKid, KeyEntry unkeyed, KeyEntry active,
+                    List<HmacTokenVerifier> hmacVerifiers) {
+        KeyEntry find(String kid) {
+            return kid == null ? unkeyed : byKid.get(kid);
+        }
+    }
+
+    /** Published after a reload that dropped or retired keys; the kid-less key is listed as {@link #UNKEYED}. */
+    public record KeysRotated(Set<String> removedKids) { }
+
+    public static final String UNKEYED = "(no kid)";
+
+    private record FileStamp(long modified, long size) { }
+
+    public JwtKeyRing(JwtProperties props, ApplicationEventPublisher events) {
+        this.props = props;
+        this.events = events;
+    }
+
+    @PostConstruct
+    void load() {
+        String file = props.getKeyRing().getFile();
+        if (file == null || file.isBlank()) {
+            KeyEntry unkeyed = unkeyed();
+            if (unkeyed == null) throw new IllegalStateException("Set jwt.secret or jwt.key-ring.file");
+            current = snapshot(Map.of(), unkeyed, unkeyed);
+            return;
+        }
+        // At startup a broken key file is fatal; later ones are only logged
+        reload(Path.of(file));
+        if (current == null) throw new IllegalStateException("Could not load JWT keys from " + file);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.key-ring.reload-interval:PT10S}")
+    void reloadIfChanged() {
+        String file = props.getKeyRing().getFile();
+        if (file == null || file.isBlank()) return;
+        Path path = Path.of(file);
+        // Polling instead of a WatchService: atomic renames and symlink swaps (mounted secrets) are reliably seen
+        FileStamp stamp = stamp(path);
+        if (stamp != null && !stamp.equals(loadedStamp)) reload(path);
+    }
+
+    Snapshot current() {
+        return current;
+    }
+
+    /** The key new tokens are signed with. */
+    KeyEntry signingKey() {
+        KeyEntry active = current.active();
+        if (active == null || active.signingKey() == null) {
+            throw new IllegalStateException("This node holds no signing key (verify-only key ring)");
+        }
+        return active;
+    }
+
+    /** Resolves JJWT's verification key from the header; unknown kid or mismatched alg fails the parse. */
+    LocatorAdapter<Key> locator() {
+        return new LocatorAdapter<>() {
+            @Override
+            protected Key locate(JwsHeader header) {
+                KeyEntry entry = current.find(header.getKeyId());
+                if (entry == null || !entry.alg().getId().equals(header.getAlgorithm())) {
+                    throw InvalidTokenException.INVALID;
+                }
+                return entry.verificationKey();
+            }
+        };
+    }
+
+    private synchronized void reload(Path path) {
+        FileStamp stamp = stamp(path);
+        // Recorded even if the file is bad, so it is reported once rather than on every poll
+        loadedStamp = stamp;
+        Snapshot next;
+        try {
+            next = parse(Files.readString(path));
+        } catch (IOException | GeneralSecurityException | RuntimeException e) {
+            log.error("Keeping current JWT keys: cannot load {}: {}", path, e.toString());
+            return;
+        }
+        Snapshot previous = current;
+        current = next;
+        log.info("Loaded JWT keys {} from {} (signing with {}, {} tokens without kid)", next.byKid().keySet(), path,
+            next.active() == null ? "none, verify only" : next.active().kid(),
+            next.unkeyed() == null ? "rejecting" : "accepting");
+        if (previous != null) {
+            Set<String> removed = new HashSet<>(previous.byKid().keySet());
+            removed.removeAll(next.byKid().keySet());
+            if (previous.unkeyed() != null && next.unkeyed() == null) removed.add(UNKEYED);
+            if (!removed.isEmpty()) events.publishEvent(new KeysRotated(Set.copyOf(removed)));
+        }
+    }
+
+    private Snapshot parse(String json) throws IOException, GeneralSecurityException {
+        JsonNode root = JSON.readTree(json);
+        Map<String, KeyEntry> byKid = new LinkedHashMap<>();
+        for (JsonNode node : root.path("keys")) {
+            String kid = required(node, "kid");
+            if (node.path("retired").asBoolean(false)) continue;
+            if (byKid.put(kid, parseKey(kid, node)) != null) {
+                throw new IllegalArgumentException("Duplicate kid " + kid);
+            }
+        }
+        String activeKid = root.path("active").asText(null);
+        KeyEntry active = activeKid == null ? null : byKid.get(activeKid);
+        if (activeKid != null && (active == null || active.signingKey() == null)) {
+            throw new IllegalArgumentException("Active key " + activeKid + " is missing, retired or has no private key");
+        }
+        KeyEntry unkeyed = null;
+        if (root.path("acceptUnkeyed").asBoolean(false)) {
+            unkeyed = unkeyed();
+            if (unkeyed == null) throw new IllegalArgumentException("acceptUnkeyed is set but jwt.secret is not");
+        }
+        return snapshot(Map.copyOf(byKid), unkeyed, active);
+    }
+
+    private static KeyEntry parseKey(String kid, JsonNode node) throws GeneralSecurityException {
+        String alg = required(node, "alg");
+        return switch (alg) {
+            case "HS256" -> {
+                SecretKey key = Keys.hmacShaKeyFor(decode(required(node, "secret")));
+                yield new KeyEntry(kid, alg(Jwts.SIG.HS256), key, key);
+            }
+            case "EdDSA" -> asymmetric(kid, node, alg(Jwts.SIG.EdDSA), "Ed25519");
+            case "ES256" -> asymmetric(kid, node, alg(Jwts.SIG.ES256), "EC");
+            default -> throw new IllegalArgumentException("Unsupported alg " + alg + " for kid " + kid);
+        };
+    }
+
+    private static KeyEntry asymmetric(String kid, JsonNode node, SecureDigestAlgorithm<Key, Key> alg, String keyType)
+            throws GeneralSecurityException {
+        KeyFactory factory = KeyFactory.getInstance(keyType);
+        PublicKey publicKey = factory.generatePublic(new X509EncodedKeySpec(decode(required(node, "publicKey"))));
+        String privateText = node.path("privateKey").asText(null);
+        PrivateKey privateKey = privateText == null ? null
+            : factory.generatePrivate(new PKCS8EncodedKeySpec(decode(privateText)));
+        return new KeyEntry(kid, alg, publicKey, privateKey);
+    }
+
+    /** JJWT checks at runtime that the key suits the algorithm; widening the types here keeps KeyEntry simple. */
+    @SuppressWarnings("unchecked")
+    private static SecureDigestAlgorithm<Key, Key> alg(SecureDigestAlgorithm<?, ?> alg) {
+        return (SecureDigestAlgorithm<Key, Key>) alg;
+    }
+
+    private KeyEntry unkeyed() {
+        String secret = props.getSecret();
+        if (secret == null || secret.isBlank()) return null;
+        SecretKey key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        return new KeyEntry(null, alg(Jwts.SIG.HS256), key, key);
+    }
+
+    /** Pairs each HS256 key with the exact header segment our own tokens carry for it, for the fast path. */
+    private static Snapshot snapshot(Map<String, KeyEntry> byKid, KeyEntry unkeyed, KeyEntry active) {
+        List<HmacTokenVerifier> hmac = new ArrayList<>();
+        // Active key first: it signed nearly every token in circulation
+        if (active != null && isHmac(active)) hmac.add(hmacVerifier(active));
+        for (KeyEntry e : byKid.values()) {
+            if (e != active && isHmac(e)) hmac.add(hmacVerifier(e));
+        }
+        if (unkeyed != null && unkeyed != active) hmac.add(hmacVerifier(unkeyed));
+        return new Snapshot(byKid, unkeyed, active, List.copyOf(hmac));
+    }
+
+    private static boolean isHmac(KeyEntry e) {
+        return e.alg() == (Object) Jwts.SIG.HS256;
+    }
+
+    private static HmacTokenVerifier hmacVerifier(KeyEntry e) {
+        // Let JJWT produce the header rather than guessing its field order and encoding
+        var builder = Jwts.builder();
+        if (e.kid() != null) builder.header().keyId(e.kid()).and();
+        String sample = builder.subject("header").signWith(e.signingKey(), e.alg()).compact();
+        return new HmacTokenVerifier((SecretKey) e.verificationKey(), sample.substring(0, sample.indexOf('.')));
+    }
+
+    private static String required(JsonNode node, String field) {
+        String value = node.path(field).asText(null);
+        if (value == null || value.isBlank()) throw new IllegalArgumentException("Key entry without " + field);
+        return value;
+    }
+
+    /** Base64 (standard or url-safe), optionally PEM-armored. */
+    private static byte[] decode(String text) {
+        String body = text.replaceAll("-----[A-Z ]+-----", "").replaceAll("\\s", "");
+        return body.indexOf('-') >= 0 || body.indexOf('_') >= 0
+            ? Base64.getUrlDecoder().decode(body.replace("=", ""))
+            : Base64.getDecoder().decode(body);
+    }
+
+    private static FileStamp stamp(Path path) {
+        try {
+            var attrs = Files.readAttributes(path, BasicFileAttributes.class);
+            return new FileStamp(attrs.lastModifiedTime().toMillis(), attrs.size());
+        } catch (IOException e) {
+            log.warn("Cannot read JWT key file {}: {}", path, e.toString());
+            return null;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.reactive.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -7,14 +9,42 @@ import org.springframework.security.web.server.authentication.ServerAuthenticati
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
+import java.util.concurrent.TimeUnit;
+
 public class JwtServerAuthenticationConverter implements ServerAuthenticationConverter {
     private static final String BEARER = "Bearer ";
 
+    private final Timer bearer;
+    private final Timer missing;
+    private final Timer otherScheme;
+
+    public JwtServerAuthenticationConverter(MeterRegistry meterRegistry) {
+        this.bearer = timer(meterRegistry, "bearer");
+        this.missing = timer(meterRegistry, "missing");
+        this.otherScheme = timer(meterRegistry, "other_scheme");
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("security.token.extraction")
+            .description("Reading the bearer token from the Authorization header")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
     @Override
     public Mono<Authentication> convert(ServerWebExchange exchange) {
-        return Mono.justOrEmpty(exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION))
-            .filter(h -> h.regionMatches(true, 0, BEARER, 0, BEARER.length()))
-            .map(h -> h.substring(BEARER.length()))
-            .map(tok -> new UsernamePasswordAuthenticationToken(tok, tok));
+        long start = System.nanoTime();
+        String header = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (header == null) {
+            missing.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return Mono.empty();
+        }
+        if (!header.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            otherScheme.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return Mono.empty();
+        }
+        String token = header.substring(BEARER.length());
+        bearer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return Mono.just(new UsernamePasswordAuthenticationToken(token, token));
     }
 }
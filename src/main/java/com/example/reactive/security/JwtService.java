@@ -3,7 +3,11 @@ package com.example.reactive.security;
 import com.example.reactive.config.JwtProperties;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -12,11 +16,12 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
-import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -24,42 +29,172 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class JwtService {
 
+    static final long CLOCK_SKEW_SECONDS = 30;
+
     private final JwtProperties props;
-    private SecretKey key;
+    private final JwtKeyRing keyRing;
+    private final MeterRegistry meterRegistry;
+    private JwtParser parser;
+    private boolean hmacFastPath;
+    private ValidationTimers hmacTimers;
+    private ValidationTimers jjwtTimers;
+    private Timer accessGeneration;
+    private Timer refreshGeneration;
 
     @PostConstruct
     void init() {
-        this.key = io.jsonwebtoken.security.Keys.hmacShaKeyFor(props.getSecret().getBytes(StandardCharsets.UTF_8));
+        // JwtParser is immutable and thread-safe, no need to rebuild it per token; the locator reads the
+        // key ring's current keys, so it survives key reloads too
+        this.parser = Jwts.parser()
+            .clockSkewSeconds(CLOCK_SKEW_SECONDS)
+            .keyLocator(keyRing.locator())
+            .build();
+        this.hmacFastPath = props.getVerifier() == JwtProperties.Verifier.HMAC;
+        this.hmacTimers = new ValidationTimers(meterRegistry, "hmac");
+        this.jjwtTimers = new ValidationTimers(meterRegistry, "jjwt");
+        this.accessGeneration = generationTimer("access");
+        this.refreshGeneration = generationTimer("refresh");
+        log.info("JWT verifier engine: {}", props.getVerifier());
+    }
+
+    private Timer generationTimer(String type) {
+        return Timer.builder("jwt.generation").tag("type", type).register(meterRegistry);
     }
 
     public Mono<String> generateToken(Authentication authentication) {
-        return Mono.fromCallable(() -> Jwts.builder()
+        return Mono.fromCallable(() -> accessGeneration.record(() -> sign(Jwts.builder()
             .subject(authentication.getName())
+            // Lets a single token be revoked (TokenRevocationList)
+            .id(UUID.randomUUID().toString())
             .claims(Map.of(
                 "roles", authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).collect(Collectors.toList()),
                 "type", "access"
             ))
             .issuer(props.getIssuer())
             .issuedAt(Date.from(Instant.now()))
-            .expiration(Date.from(Instant.now().plusMillis(props.getExpiration())))
-            .signWith(key, Jwts.SIG.HS256)
-            .compact());
+            .expiration(Date.from(Instant.now().plusMillis(props.getExpiration()))))));
+    }
+
+    /** Long-lived token whose only use is {@code /api/auth/refresh}; {@code jti} identifies its stored row. */
+    public Mono<String> generateRefreshToken(String username, String jti, Instant expiresAt) {
+        return Mono.fromCallable(() -> refreshGeneration.record(() -> sign(Jwts.builder()
+            .subject(username)
+            .id(jti)
+            .claim("type", "refresh")
+            .issuer(props.getIssuer())
+            .issuedAt(Date.from(Instant.now()))
+            .expiration(Date.from(expiresAt)))));
     }
 
-    public Mono<Claims> validateAndGetClaims(String token) {
-        return Mono.fromCallable(() -> {
+    /** Signs with the key ring's active key, naming it in the {@code kid} header. */
+    private String sign(JwtBuilder builder) {
+        JwtKeyRing.KeyEntry signing = keyRing.signingKey();
+        if (signing.kid() != null) builder.header().keyId(signing.kid()).and();
+        return builder.signWith(signing.signingKey(), signing.alg()).compact();
+    }
+
+    public Mono<TokenClaims> validateAndGetClaims(String token) {
+        return Mono.fromCallable(() -> verify(token));
+    }
+
+    TokenClaims verify(String token) {
+        long start = System.nanoTime();
+        if (!isCompactJws(token)) {
+            jjwtTimers.invalid.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw invalidToken();
+        }
+        HmacTokenVerifier hmacVerifier = hmacFastPath ? hmacVerifierFor(token) : null;
+        if (hmacVerifier != null) {
+            TokenClaims claims;
             try {
-                return Jwts.parser()
-                    .clockSkewSeconds(30)
-                    .verifyWith(key)
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-            } catch (ExpiredJwtException e) {
-                throw new RuntimeException("Token expired");
-            } catch (Exception e) {
-                throw new RuntimeException("Invalid token");
+                claims = hmacVerifier.verify(token, System.currentTimeMillis(), CLOCK_SKEW_SECONDS * 1000);
+            } catch (RuntimeException e) {
+                hmacTimers.failed(e, start);
+                throw e;
             }
-        });
+            if (claims != null) {
+                hmacTimers.valid.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return claims;
+            }
+        }
+        try {
+            TokenClaims claims = parseWithJjwt(token);
+            jjwtTimers.valid.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return claims;
+        } catch (RuntimeException e) {
+            jjwtTimers.failed(e, start);
+            throw e;
+        }
+    }
+
+    /** The fast-path verifier for the HS256 key whose header the token carries; null for anything else. */
+    private HmacTokenVerifier hmacVerifierFor(String token) {
+        for (HmacTokenVerifier v : keyRing.current().hmacVerifiers()) {
+            if (v.accepts(token)) return v;
+        }
+        return null;
+    }
+
+    /**
+     * Exactly two dots, as in header.payload.signature. Anything else would only fail inside JJWT,
+     * at the cost of a stack-trace-filled exception per garbage token.
+     */
+    private static boolean isCompactJws(String token) {
+        int dot1 = token.indexOf('.');
+        if (dot1 <= 0) return false;
+        int dot2 = token.indexOf('.', dot1 + 1);
+        return dot2 > dot1 + 1 && token.indexOf('.', dot2 + 1) < 0;
+    }
+
+    /** {@code jwt.validation} per outcome for one engine; the engine is whichever one reached the verdict. */
+    private static final class ValidationTimers {
+        final Timer valid;
+        final Timer expired;
+        final Timer invalid;
+
+        ValidationTimers(MeterRegistry meterRegistry, String engine) {
+            this.valid = timer(meterRegistry, engine, "valid");
+            this.expired = timer(meterRegistry, engine, "expired");
+            this.invalid = timer(meterRegistry, engine, "invalid");
+        }
+
+        private static Timer timer(MeterRegistry meterRegistry, String engine, String outcome) {
+            return Timer.builder("jwt.validation")
+                .tag("engine", engine)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+        }
+
+        void failed(RuntimeException e, long start) {
+            (e == InvalidTokenException.EXPIRED ? expired : invalid)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private TokenClaims parseWithJjwt(String token) {
+        try {
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            List<?> roles = claims.get("roles") instanceof List<?> l ? l : null;
+            return new TokenClaims(
+                claims.getSubject(),
+                roles == null ? null : roles.stream().map(String::valueOf).toList(),
+                claims.getExpiration() == null ? 0 : claims.getExpiration().getTime() / 1000,
+                claims.getIssuedAt() == null ? 0 : claims.getIssuedAt().getTime() / 1000,
+                claims.getIssuer(),
+                claims.get("type") instanceof String type ? type : null,
+                claims.getId());
+        } catch (ExpiredJwtException e) {
+            throw tokenExpired();
+        } catch (Exception e) {
+            throw invalidToken();
+        }
+    }
+
+    static InvalidTokenException tokenExpired() {
+        return InvalidTokenException.EXPIRED;
+    }
+
+    static InvalidTokenException invalidToken() {
+        return InvalidTokenException.INVALID;
     }
 }
@@ -0,0 +1,126 @@
+package com.example.reactive.security;
+
+import com.example.reactive.config.LoginThrottleProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-username and per-client-address login rate limits, checked before the user lookup and bcrypt.
+ * <p>
+ * Only failed attempts (wrong password, unknown user) take a token; a login is admitted while its buckets
+ * have one left. Successful logins are free, so they neither lock out a known username nor throttle a
+ * heavy legitimate user. Attempts that race past the check together are all hashed, and all charged if
+ * they fail.
+ * <p>
+ * Each key is a GCRA token bucket: a single {@link AtomicLong} holding the bucket's theoretical
+ * arrival time, updated with a CAS loop, so admitting an attempt never takes a lock. Buckets live in
+ * size-bounded Caffeine caches and are dropped once idle long enough to have refilled completely,
+ * which loses no state.
+ */
+@Component
+public class LoginThrottle {
+
+    private final boolean enabled;
+    private final Bucket byUsername;
+    private final Bucket byAddress;
+    private final Counter admitted;
+    private final Counter throttledUsername;
+    private final Counter throttledAddress;
+
+    public LoginThrottle(LoginThrottleProperties props, MeterRegistry meterRegistry) {
+        this.enabled = props.isEnabled();
+        this.byUsername = Bucket.of(props.getUsername(), props.getMaxTrackedKeys());
+        this.byAddress = Bucket.of(props.getAddress(), props.getMaxTrackedKeys());
+        this.admitted = Counter.builder("login.throttle.admitted").register(meterRegistry);
+        this.throttledUsername = Counter.builder("login.throttle.rejected").tag("key", "username").register(meterRegistry);
+        this.throttledAddress = Counter.builder("login.throttle.rejected").tag("key", "address").register(meterRegistry);
+    }
+
+    /**
+     * Checks both buckets (those that are enabled) without taking anything from them.
+     *
+     * @return {@code null} if admitted, otherwise how long until the next attempt would be admitted
+     */
+    public Duration check(String username, String clientAddress) {
+        if (!enabled) return null;
+        long now = System.nanoTime();
+        if (byAddress != null && clientAddress != null) {
+            long wait = byAddress.wait(clientAddress, now);
+            if (wait > 0) {
+                throttledAddress.increment();
+                return Duration.ofNanos(wait);
+            }
+        }
+        long wait = byUsername == null ? 0 : byUsername.wait(username, now);
+        if (wait > 0) {
+            throttledUsername.increment();
+            return Duration.ofNanos(wait);
+        }
+        admitted.increment();
+        return null;
+    }
+
+    /** Takes one attempt from both buckets, for an admitted login that failed. */
+    public void recordFailure(String username, String clientAddress) {
+        if (!enabled) return;
+        long now = System.nanoTime();
+        if (byAddress != null && clientAddress != null) byAddress.tryAcquire(clientAddress, now);
+        if (byUsername != null) byUsername.tryAcquire(username, now);
+    }
+
+    private static final class Bucket {
+        /** Nanos between refills. */
+        private final long interval;
+        /** How far ahead of now the arrival time may run: the burst allowance. */
+        private final long tolerance;
+        private final Cache<String, AtomicLong> buckets;
+
+        /** {@code null} if the limit is disabled. */
+        static Bucket of(LoginThrottleProperties.Limit limit, long maxKeys) {
+            return limit.isEnabled() ? new Bucket(limit, maxKeys) : null;
+        }
+
+        private Bucket(LoginThrottleProperties.Limit limit, long maxKeys) {
+            int attempts = Math.max(1, limit.getAttempts());
+            this.interval = limit.getPeriod().toNanos() / attempts;
+            this.tolerance = interval * (attempts - 1);
+            this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofNanos(tolerance + interval))
+                .build();
+        }
+
+        /** Nanos until {@link #tryAcquire} would succeed; 0 if it would now. Creates no bucket. */
+        long wait(String key, long now) {
+            AtomicLong tat = buckets.getIfPresent(key);
+            if (tat == null) return 0;
+            long start = start(tat.get(), now);
+            return start - now > tolerance ? start - now - tolerance : 0;
+        }
+
+        long tryAcquire(String key, long now) {
+            AtomicLong tat = buckets.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+            while (true) {
+                long current = tat.get();
+                long start = start(current, now);
+                if (start - now > tolerance) {
+                    return start - now - tolerance;
+                }
+                if (tat.compareAndSet(current, start + interval)) {
+                    return 0;
+                }
+            }
+        }
+
+        private static long start(long tat, long now) {
+            // MIN_VALUE marks a fresh bucket; compare via subtraction to stay wrap-safe with nanoTime
+            return tat == Long.MIN_VALUE || tat - now < 0 ? now : tat;
+        }
+    }
+}
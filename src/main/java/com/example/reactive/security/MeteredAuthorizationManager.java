@@ -0,0 +1,63 @@
+package com.example.reactive.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.authorization.ReactiveAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.server.authorization.AuthorizationContext;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times an exchange authorization manager as {@code security.authorization}, tagged with the route pattern
+ * it guards (never the concrete path), the manager and the outcome.
+ */
+public final class MeteredAuthorizationManager implements ReactiveAuthorizationManager<AuthorizationContext> {
+
+    private final ReactiveAuthorizationManager<AuthorizationContext> delegate;
+    private final Timer granted;
+    private final Timer denied;
+    private final Timer failed;
+
+    private MeteredAuthorizationManager(ReactiveAuthorizationManager<AuthorizationContext> delegate,
+                                        String manager, String route, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.granted = timer(meterRegistry, manager, route, "granted");
+        this.denied = timer(meterRegistry, manager, route, "denied");
+        this.failed = timer(meterRegistry, manager, route, "error");
+    }
+
+    public static MeteredAuthorizationManager of(String manager, String route,
+                                                 ReactiveAuthorizationManager<AuthorizationContext> delegate,
+                                                 MeterRegistry meterRegistry) {
+        return new MeteredAuthorizationManager(delegate, manager, route, meterRegistry);
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String manager, String route, String outcome) {
+        return Timer.builder("security.authorization")
+            .tag("manager", manager)
+            .tag("route", route)
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<AuthorizationResult> authorize(Mono<Authentication> authentication, AuthorizationContext context) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return delegate.authorize(authentication, context)
+                .doOnSuccess(d -> (d != null && d.isGranted() ? granted : denied)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS))
+                .doOnError(e -> failed.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    @Override
+    @Deprecated
+    public Mono<AuthorizationDecision> check(Mono<Authentication> authentication, AuthorizationContext context) {
+        return RoleSetAuthorizationManager.asDecision(authorize(authentication, context));
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.reactive.security;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Only the user whose id is passed in the named parameter may invoke the annotated method.
+ * Checked by {@link OwnsUserAuthorizationManager}.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface OwnsUser {
+
+    /** Name of the parameter holding the user id. */
+    String value() default "id";
+}
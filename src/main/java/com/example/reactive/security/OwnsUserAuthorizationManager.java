@@ -0,0 +1,55 @@
+package com.example.reactive.security;
+
+import com.example.reactive.repository.UserRepository;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.core.Authentication;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+/**
+ * Enforces {@link OwnsUser}: the id parameter is resolved to its position once per method, and a call grants
+ * when the user with that id is the authenticated one. A missing user is denied like someone else's.
+ */
+public final class OwnsUserAuthorizationManager extends AnnotationMethodAuthorizationManager<Integer> {
+
+    private static final ParameterNameDiscoverer PARAMETER_NAMES = new DefaultParameterNameDiscoverer();
+
+    /** Looked up on first use: method security is set up before the repositories exist. */
+    private final ObjectProvider<UserRepository> userRepository;
+
+    public OwnsUserAuthorizationManager(ObjectProvider<UserRepository> userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    Integer compile(Method method, Class<?> targetClass) {
+        OwnsUser annotation = AnnotatedElementUtils.findMergedAnnotation(method, OwnsUser.class);
+        if (annotation == null) return null;
+        requireReactive(method, OwnsUser.class);
+        String[] names = PARAMETER_NAMES.getParameterNames(method);
+        int index = names == null ? -1 : Arrays.asList(names).indexOf(annotation.value());
+        if (index < 0 || !Number.class.isAssignableFrom(method.getParameterTypes()[index])
+                && method.getParameterTypes()[index] != long.class) {
+            throw new IllegalStateException("@OwnsUser on " + method + " needs a numeric parameter named '"
+                + annotation.value() + "'");
+        }
+        return index;
+    }
+
+    @Override
+    Mono<AuthorizationResult> authorize(Mono<Authentication> authentication, MethodInvocation invocation,
+                                        Integer index) {
+        if (!(invocation.getArguments()[index] instanceof Number id)) return DENIED_MONO;
+        return authentication
+            .flatMap(auth -> userRepository.getObject().findById(id.longValue())
+                .map(user -> RoleSetAuthorizationManager.decision(user.getUsername().equals(auth.getName()))))
+            .switchIfEmpty(DENIED_MONO);
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.reactive.security;
+
+import com.example.reactive.config.PasswordHashingProperties;
+import com.example.reactive.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs password hashing on a CPU-sized pool with a bounded wait queue.
+ * When the queue is full the request fails immediately with {@link ServiceOverloadedException}
+ * instead of queueing behind thousands of ~100ms bcrypt rounds.
+ */
+@Slf4j
+@Component
+public class PasswordHashingExecutor {
+
+    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingProperties props;
+    private final ThreadPoolExecutor executor;
+    private final Timer waitTimer;
+    private final Timer matchTimer;
+    private final Timer encodeTimer;
+    private final Counter rejected;
+
+    public PasswordHashingExecutor(PasswordEncoder passwordEncoder, PasswordHashingProperties props,
+                                   MeterRegistry meterRegistry) {
+        this.passwordEncoder = passwordEncoder;
+        this.props = props;
+        int threads = props.getThreads() > 0 ? props.getThreads() : Runtime.getRuntime().availableProcessors();
+        var counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, props.getQueueCapacity())),
+            r -> {
+                var t = new Thread(r, "password-hashing-" + counter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("password.hashing.queue.size", executor, e -> e.getQueue().size())
+            .description("Hash requests waiting for a hashing thread")
+            .register(meterRegistry);
+        Gauge.builder("password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+            .register(meterRegistry);
+        this.waitTimer = Timer.builder("password.hashing.wait")
+            .description("Time a hash request spent queued")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        this.matchTimer = Timer.builder("password.hashing.duration").tag("operation", "matches")
+            .publishPercentileHistogram().register(meterRegistry);
+        this.encodeTimer = Timer.builder("password.hashing.duration").tag("operation", "encode")
+            .publishPercentileHistogram().register(meterRegistry);
+        this.rejected = Counter.builder("password.hashing.rejected")
+            .description("Hash requests shed because the queue was full")
+            .register(meterRegistry);
+        log.info("Password hashing pool: {} threads, queue capacity {}", threads, props.getQueueCapacity());
+    }
+
+    public Mono<Boolean> matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(matchTimer, () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    public Mono<String> encode(CharSequence rawPassword) {
+        return submit(encodeTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    private <T> Mono<T> submit(Timer hashTimer, Callable<T> task) {
+        return Mono.defer(() -> {
+            long enqueued = System.nanoTime();
+            var result = new CompletableFuture<T>();
+            try {
+                executor.execute(() -> {
+                    // Subscriber went away while we were queued: don't burn CPU for nobody
+                    if (result.isDone()) return;
+                    long started = System.nanoTime();
+                    waitTimer.record(started - enqueued, TimeUnit.NANOSECONDS);
+                    try {
+                        result.complete(task.call());
+                    } catch (Throwable t) {
+                        result.completeExceptionally(t);
+                    } finally {
+                        hashTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                rejected.increment();
+                return Mono.error(new ServiceOverloadedException("Password hashing capacity exceeded",
+                    props.getRetryAfter()));
+            }
+            return Mono.fromFuture(result);
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
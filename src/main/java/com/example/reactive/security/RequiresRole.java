@@ -0,0 +1,21 @@
+package com.example.reactive.security;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Only callers holding any of the given roles may invoke the annotated method, or every reactive method of the
+ * annotated class. A method-level annotation replaces the class-level one. Checked by
+ * {@link RequiresRoleAuthorizationManager}.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface RequiresRole {
+
+    /** Role names without the {@code ROLE_} prefix, e.g. {@code "ADMIN"}. */
+    String[] value();
+}
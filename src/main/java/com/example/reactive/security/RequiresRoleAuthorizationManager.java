@@ -0,0 +1,47 @@
+package com.example.reactive.security;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.reactivestreams.Publisher;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.core.Authentication;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+
+/**
+ * Enforces {@link RequiresRole}: the role names are interned into a {@link RoleSet} once per method, and a call
+ * is a bit test against the caller's roles answered with the shared decisions.
+ */
+public final class RequiresRoleAuthorizationManager extends AnnotationMethodAuthorizationManager<RoleSet> {
+
+    @Override
+    RoleSet compile(Method method, Class<?> targetClass) {
+        RequiresRole annotation = AnnotatedElementUtils.findMergedAnnotation(method, RequiresRole.class);
+        if (annotation != null) {
+            requireReactive(method, RequiresRole.class);
+        } else if (targetClass != null && Modifier.isPublic(method.getModifiers())
+                && Publisher.class.isAssignableFrom(method.getReturnType())) {
+            annotation = AnnotatedElementUtils.findMergedAnnotation(targetClass, RequiresRole.class);
+        }
+        if (annotation == null) return null;
+        if (annotation.value().length == 0) {
+            throw new IllegalStateException("@RequiresRole on " + method + " names no role");
+        }
+        // Interning is harmless for a role nobody holds yet, and lets users granted it later pass
+        return RoleRegistry.of(Arrays.stream(annotation.value())
+            .map(role -> RoleRegistry.intern(role.startsWith("ROLE_") ? role : "ROLE_" + role))
+            .toArray(InternedAuthority[]::new));
+    }
+
+    @Override
+    Mono<AuthorizationResult> authorize(Mono<Authentication> authentication, MethodInvocation invocation,
+                                        RoleSet required) {
+        return authentication
+            .map(auth -> RoleSetAuthorizationManager.decision(
+                auth.isAuthenticated() && RoleSetAuthentication.hasAnyAuthority(auth, required)))
+            .switchIfEmpty(DENIED_MONO);
+    }
+}
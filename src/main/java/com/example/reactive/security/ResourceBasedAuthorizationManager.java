@@ -1,6 +1,7 @@
 package com.example.reactive.security;
 
 import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationResult;
 import org.springframework.security.authorization.ReactiveAuthorizationManager;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.web.server.authorization.AuthorizationContext;
@@ -10,14 +11,20 @@ import reactor.core.publisher.Mono;
 @Component
 public class ResourceBasedAuthorizationManager implements ReactiveAuthorizationManager<AuthorizationContext> {
     @Override
-    public Mono<AuthorizationDecision> check(Mono<Authentication> authentication, AuthorizationContext ctx) {
+    public Mono<AuthorizationResult> authorize(Mono<Authentication> authentication, AuthorizationContext ctx) {
         String requestedId = null;
         if (ctx.getVariables() != null && ctx.getVariables().get("id") != null) {
             requestedId = (String) ctx.getVariables().get("id");
         }
         final String reqId = requestedId;
         return authentication
-            .map(auth -> new AuthorizationDecision(reqId != null && reqId.equals(auth.getName())))
-            .defaultIfEmpty(new AuthorizationDecision(false));
+            .map(auth -> RoleSetAuthorizationManager.decision(reqId != null && reqId.equals(auth.getName())))
+            .defaultIfEmpty(RoleSetAuthorizationManager.DENIED);
+    }
+
+    @Override
+    @Deprecated
+    public Mono<AuthorizationDecision> check(Mono<Authentication> authentication, AuthorizationContext ctx) {
+        return RoleSetAuthorizationManager.asDecision(authorize(authentication, ctx));
     }
 }
@@ -0,0 +1,122 @@
+package com.example.reactive.security;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Process-wide intern table for authorities and the role sets built from them.
+ * Static because entities ({@link com.example.reactive.model.User}) need it as well as beans.
+ */
+public final class RoleRegistry {
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private static final ConcurrentHashMap<String, InternedAuthority> BY_AUTHORITY = new ConcurrentHashMap<>();
+    /** Same entries keyed by the unprefixed role name ("ADMIN"), so lookups from role names don't concatenate. */
+    private static final ConcurrentHashMap<String, InternedAuthority> BY_ROLE_NAME = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<Bits, RoleSet> SETS = new ConcurrentHashMap<>();
+    private static final AtomicInteger NEXT_INDEX = new AtomicInteger();
+
+    public static final InternedAuthority ROLE_USER = intern("ROLE_USER");
+    public static final InternedAuthority ROLE_ADMIN = intern("ROLE_ADMIN");
+    public static final InternedAuthority SCOPE_SPECIAL = intern("SCOPE_special");
+
+    public static final RoleSet EMPTY = setOf(new long[0]);
+
+    private RoleRegistry() {
+    }
+
+    public static InternedAuthority intern(String authority) {
+        InternedAuthority existing = BY_AUTHORITY.get(authority);
+        if (existing != null) return existing;
+        synchronized (BY_AUTHORITY) {
+            return BY_AUTHORITY.computeIfAbsent(authority, a -> {
+                var interned = new InternedAuthority(a, NEXT_INDEX.getAndIncrement());
+                if (a.startsWith(ROLE_PREFIX)) BY_ROLE_NAME.put(a.substring(ROLE_PREFIX.length()), interned);
+                return interned;
+            });
+        }
+    }
+
+    /** Authority for a role name or {@code ROLE_}-prefixed authority, without registering unknown names. */
+    public static InternedAuthority findRole(String role) {
+        return role.startsWith(ROLE_PREFIX) ? BY_AUTHORITY.get(role) : BY_ROLE_NAME.get(role);
+    }
+
+    /** Authority {@code ROLE_<name>} for an unprefixed role name, or {@code null} if never registered. */
+    public static InternedAuthority findRoleName(String name) {
+        return BY_ROLE_NAME.get(name);
+    }
+
+    /** Role names as stored on users or carried in tokens; a missing {@code ROLE_} prefix is added. */
+    public static RoleSet fromRoles(Collection<String> roles) {
+        if (roles == null || roles.isEmpty()) return EMPTY;
+        long[] words = new long[1];
+        for (String role : roles) {
+            InternedAuthority a = findRole(role);
+            if (a == null) a = intern(role.startsWith(ROLE_PREFIX) ? role : ROLE_PREFIX + role);
+            words = set(words, a.index());
+        }
+        return canonical(words);
+    }
+
+    public static RoleSet fromAuthorities(Collection<? extends GrantedAuthority> authorities) {
+        if (authorities == null || authorities.isEmpty()) return EMPTY;
+        long[] words = new long[1];
+        for (GrantedAuthority ga : authorities) {
+            InternedAuthority a = ga instanceof InternedAuthority ia ? ia : intern(ga.getAuthority());
+            words = set(words, a.index());
+        }
+        return canonical(words);
+    }
+
+    public static RoleSet of(InternedAuthority... authorities) {
+        long[] words = new long[1];
+        for (InternedAuthority a : authorities) words = set(words, a.index());
+        return canonical(words);
+    }
+
+    private static long[] set(long[] words, int index) {
+        int w = index >>> 6;
+        if (w >= words.length) words = Arrays.copyOf(words, w + 1);
+        words[w] |= 1L << index;
+        return words;
+    }
+
+    private static RoleSet canonical(long[] words) {
+        int len = words.length;
+        while (len > 0 && words[len - 1] == 0) len--;
+        if (len != words.length) words = Arrays.copyOf(words, len);
+        RoleSet existing = SETS.get(new Bits(words));
+        return existing != null ? existing : setOf(words);
+    }
+
+    private static RoleSet setOf(long[] words) {
+        return SETS.computeIfAbsent(new Bits(words), b -> {
+            List<GrantedAuthority> list = new ArrayList<>();
+            BY_AUTHORITY.values().stream()
+                .filter(a -> (a.index() >>> 6) < words.length && (words[a.index() >>> 6] & (1L << a.index())) != 0)
+                .sorted((x, y) -> Integer.compare(x.index(), y.index()))
+                .forEach(list::add);
+            return new RoleSet(words, List.copyOf(list));
+        });
+    }
+
+    private record Bits(long[] words) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Bits other && Arrays.equals(words, other.words);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(words);
+        }
+    }
+}
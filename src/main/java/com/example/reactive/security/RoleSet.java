@@ -0,0 +1,51 @@
+package com.example.reactive.security;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+
+/**
+ * Immutable, canonical set of {@link InternedAuthority} bits. Obtain instances from {@link RoleRegistry};
+ * equal sets are the same instance, and the authority list is built once per distinct set.
+ */
+public final class RoleSet {
+
+    private final long[] words;
+    private final List<GrantedAuthority> authorities;
+
+    RoleSet(long[] words, List<GrantedAuthority> authorities) {
+        this.words = words;
+        this.authorities = authorities;
+    }
+
+    public boolean contains(InternedAuthority authority) {
+        int w = authority.index() >>> 6;
+        return w < words.length && (words[w] & (1L << authority.index())) != 0;
+    }
+
+    public boolean intersects(RoleSet other) {
+        int n = Math.min(words.length, other.words.length);
+        for (int i = 0; i < n; i++) {
+            if ((words[i] & other.words[i]) != 0) return true;
+        }
+        return false;
+    }
+
+    public boolean isEmpty() {
+        return words.length == 0;
+    }
+
+    /** Shared, unmodifiable view; callers must not rely on a fresh copy. */
+    public List<GrantedAuthority> authorities() {
+        return authorities;
+    }
+
+    long[] words() {
+        return words;
+    }
+
+    @Override
+    public String toString() {
+        return authorities.toString();
+    }
+}
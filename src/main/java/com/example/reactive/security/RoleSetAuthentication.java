@@ -0,0 +1,59 @@
+package com.example.reactive.security;
+
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+
+/**
+ * Authenticated principal whose authorities are an interned {@link RoleSet}.
+ * Role checks are a bit test; {@link #getAuthorities()} returns the set's shared list instead of a copy.
+ */
+public class RoleSetAuthentication extends AbstractAuthenticationToken {
+
+    private final String username;
+    private final Object credentials;
+    private final RoleSet roles;
+
+    public RoleSetAuthentication(String username, Object credentials, RoleSet roles) {
+        super(null);
+        this.username = username;
+        this.credentials = credentials;
+        this.roles = roles;
+        setAuthenticated(true);
+    }
+
+    /** True if {@code auth} holds {@code authority}; falls back to a scan for other Authentication types. */
+    public static boolean hasAuthority(Authentication auth, InternedAuthority authority) {
+        if (auth instanceof RoleSetAuthentication r) return r.roles.contains(authority);
+        for (GrantedAuthority a : auth.getAuthorities()) {
+            if (authority.getAuthority().equals(a.getAuthority())) return true;
+        }
+        return false;
+    }
+
+    public static boolean hasAnyAuthority(Authentication auth, RoleSet required) {
+        if (auth instanceof RoleSetAuthentication r) return r.roles.intersects(required);
+        return RoleRegistry.fromAuthorities(auth.getAuthorities()).intersects(required);
+    }
+
+    public RoleSet getRoles() {
+        return roles;
+    }
+
+    @Override
+    public Collection<GrantedAuthority> getAuthorities() {
+        return roles.authorities();
+    }
+
+    @Override
+    public Object getCredentials() {
+        return credentials;
+    }
+
+    @Override
+    public Object getPrincipal() {
+        return username;
+    }
+}
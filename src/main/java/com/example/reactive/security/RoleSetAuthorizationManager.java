@@ -0,0 +1,55 @@
+package com.example.reactive.security;
+
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.authorization.ReactiveAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.server.authorization.AuthorizationContext;
+import reactor.core.publisher.Mono;
+
+/**
+ * Bitset replacement for {@code hasAnyRole}/{@code hasAuthority}: grants when the authenticated principal
+ * holds any of the required authorities. Decisions are shared instances.
+ */
+public final class RoleSetAuthorizationManager implements ReactiveAuthorizationManager<AuthorizationContext> {
+
+    public static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    public static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+    private static final Mono<AuthorizationResult> DENIED_MONO = Mono.just(DENIED);
+
+    private final RoleSet required;
+
+    private RoleSetAuthorizationManager(RoleSet required) {
+        this.required = required;
+    }
+
+    public static RoleSetAuthorizationManager anyOf(InternedAuthority... authorities) {
+        return new RoleSetAuthorizationManager(RoleRegistry.of(authorities));
+    }
+
+    public static AuthorizationResult decision(boolean granted) {
+        return granted ? GRANTED : DENIED;
+    }
+
+    /**
+     * Spring Security 6.5 still has every manager implement the deprecated {@code check}; the managers here
+     * implement {@code authorize} and answer {@code check} through this.
+     */
+    static Mono<AuthorizationDecision> asDecision(Mono<AuthorizationResult> result) {
+        return result.map(r -> r instanceof AuthorizationDecision d ? d : new AuthorizationDecision(r.isGranted()));
+    }
+
+    @Override
+    public Mono<AuthorizationResult> authorize(Mono<Authentication> authentication, AuthorizationContext context) {
+        return authentication
+            .map(auth -> decision(auth.isAuthenticated() && RoleSetAuthentication.hasAnyAuthority(auth, required)))
+            .switchIfEmpty(DENIED_MONO);
+    }
+
+    @Override
+    @Deprecated
+    public Mono<AuthorizationDecision> check(Mono<Authentication> authentication, AuthorizationContext context) {
+        return asDecision(authorize(authentication, context));
+    }
+}
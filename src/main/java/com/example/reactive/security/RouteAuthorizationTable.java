@@ -0,0 +1,270 @@
+package com.example.reactive.security;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.authorization.ReactiveAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.server.authorization.AuthorizationContext;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Exchange authorization rules compiled into a prefix trie keyed by method and path segment, as a drop-in
+ * for a sequential {@code pathMatchers(...)} chain: the first rule in declaration order that matches wins,
+ * exactly as the chain would pick it, and {@code {var}} captures reach the rule's manager as context variables.
+ * <p>
+ * A lookup walks the request path once; branches are pruned as soon as they can only hold later rules than
+ * the best match so far. Permitted routes answer with a shared decision without touching the authentication.
+ * Supported pattern syntax is what the rules use: literal segments, {@code {var}} / {@code {var:regex}}
+ * captures and a trailing {@code /**}. Anything else is rejected when the table is built.
+ */
+public final class RouteAuthorizationTable implements ReactiveAuthorizationManager<AuthorizationContext> {
+
+    private static final Mono<AuthorizationResult> GRANTED_MONO = Mono.just(RoleSetAuthorizationManager.GRANTED);
+    private static final Mono<AuthorizationResult> DENIED_MONO = Mono.just(RoleSetAuthorizationManager.DENIED);
+    /** Marker for permitted routes; those are answered before any manager is called. */
+    private static final ReactiveAuthorizationManager<AuthorizationContext> PERMIT_ALL =
+        (a, ctx) -> Mono.just(RoleSetAuthorizationManager.GRANTED);
+    private static final int NONE = Integer.MAX_VALUE;
+
+    private final Node anyMethod;
+    private final Map<HttpMethod, Node> byMethod;
+    private final Rule[] rules;
+    /** Rule of an {@code anyExchange()} fallback, or {@code null}: unmatched exchanges are denied like the chain does. */
+    private final Rule fallback;
+
+    private RouteAuthorizationTable(Node anyMethod, Map<HttpMethod, Node> byMethod, Rule[] rules, Rule fallback) {
+        this.anyMethod = anyMethod;
+        this.byMethod = byMethod;
+        this.rules = rules;
+        this.fallback = fallback;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public Mono<AuthorizationResult> authorize(Mono<Authentication> authentication, AuthorizationContext context) {
+        var request = context.getExchange().getRequest();
+        Search search = find(request.getMethod(), request.getPath().pathWithinApplication());
+        Rule rule = search.best == null ? fallback : search.best.rule;
+        if (rule == null) return DENIED_MONO;
+        if (rule.manager == PERMIT_ALL) return GRANTED_MONO;
+        AuthorizationContext ctx = search.best == null || search.best.names.length == 0
+            ? context : new AuthorizationContext(context.getExchange(), search.variables());
+        return rule.manager.authorize(authentication, ctx);
+    }
+
+    @Override
+    @Deprecated
+    public Mono<AuthorizationDecision> check(Mono<Authentication> authentication, AuthorizationContext context) {
+        return RoleSetAuthorizationManager.asDecision(authorize(authentication, context));
+    }
+
+    private Search find(HttpMethod method, PathContainer path) {
+        List<PathContainer.Element> elements = path.elements();
+        var search = new Search();
+        Node methodRoot = byMethod.get(method);
+        if (methodRoot != null) search(methodRoot, elements, 0, 0, search);
+        search(anyMethod, elements, 0, 0, search);
+        return search;
+    }
+
+    private static void search(Node node, List<PathContainer.Element> elements, int i, int depth, Search search) {
+        if (node.first >= search.bestIndex()) return;
+        int size = elements.size();
+        // "/**" matches the end of the path or anything after a separator, like PathPattern's WildcardTheRest
+        if (node.rest != null && (i == size || elements.get(i) instanceof PathContainer.Separator)) {
+            search.offer(node.rest, depth);
+        }
+        if (i == size) {
+            if (node.exact != null) search.offer(node.exact, depth);
+            return;
+        }
+        // Pattern segments are always "/segment"; consecutive separators never match a literal or a capture
+        if (i + 1 >= size || !(elements.get(i) instanceof PathContainer.Separator)
+                || !(elements.get(i + 1) instanceof PathContainer.PathSegment segment)) {
+            return;
+        }
+        String value = segment.valueToMatch();
+        Node literal = node.literals.get(value);
+        if (literal != null) search(literal, elements, i + 2, depth, search);
+        if (value.isEmpty()) return;
+        for (Capture capture : node.captures) {
+            if (capture.constraint.test(value)) {
+                search.capture(depth, value);
+                search(capture.child, elements, i + 2, depth + 1, search);
+            }
+        }
+    }
+
+    public static final class Builder {
+
+        private final List<Rule> rules = new ArrayList<>();
+        private Rule fallback;
+
+        private Builder() {
+        }
+
+        public Builder permitAll(String... patterns) {
+            return access(null, PERMIT_ALL, patterns);
+        }
+
+        /** Every path for {@code method}, i.e. {@code pathMatchers(method)}. */
+        public Builder permitAll(HttpMethod method) {
+            return access(method, PERMIT_ALL, "/**");
+        }
+
+        public Builder access(String pattern, ReactiveAuthorizationManager<AuthorizationContext> manager) {
+            return access(null, manager, pattern);
+        }
+
+        public Builder access(HttpMethod method, ReactiveAuthorizationManager<AuthorizationContext> manager,
+                              String... patterns) {
+            if (fallback != null) throw new IllegalStateException("No rules can follow anyExchange()");
+            if (patterns.length == 0) throw new IllegalArgumentException("At least one pattern is required");
+            rules.add(new Rule(rules.size(), method, List.of(patterns), manager));
+            return this;
+        }
+
+        public Builder anyExchange(ReactiveAuthorizationManager<AuthorizationContext> manager) {
+            if (fallback != null) throw new IllegalStateException("anyExchange() is already set");
+            fallback = new Rule(rules.size(), null, List.of(), manager);
+            return this;
+        }
+
+        public RouteAuthorizationTable build() {
+            var anyMethod = new Node();
+            var byMethod = new HashMap<HttpMethod, Node>();
+            for (Rule rule : rules) {
+                Node root = rule.method == null ? anyMethod : byMethod.computeIfAbsent(rule.method, m -> new Node());
+                for (String pattern : rule.patterns) insert(root, rule, pattern);
+            }
+            return new RouteAuthorizationTable(anyMethod, Map.copyOf(byMethod), rules.toArray(Rule[]::new), fallback);
+        }
+
+        private static void insert(Node root, Rule rule, String pattern) {
+            if (!pattern.startsWith("/")) throw unsupported(pattern);
+            String[] segments = pattern.split("/", -1);
+            Node node = root;
+            node.first = Math.min(node.first, rule.index);
+            List<String> names = new ArrayList<>();
+            for (int s = 1; s < segments.length; s++) {
+                String segment = segments[s];
+                if (segment.equals("**") && s == segments.length - 1) {
+                    node.rest = earliest(node.rest, rule, names);
+                    return;
+                }
+                if (segment.isEmpty() || segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0) throw unsupported(pattern);
+                if (segment.startsWith("{") && segment.endsWith("}")) {
+                    String body = segment.substring(1, segment.length() - 1);
+                    int colon = body.indexOf(':');
+                    String name = colon < 0 ? body : body.substring(0, colon);
+                    String regex = colon < 0 ? null : body.substring(colon + 1);
+                    if (name.isEmpty() || name.startsWith("*")) throw unsupported(pattern);
+                    names.add(name);
+                    node = node.capture(regex);
+                } else {
+                    if (segment.indexOf('{') >= 0 || segment.indexOf('}') >= 0) throw unsupported(pattern);
+                    node = node.literals.computeIfAbsent(segment, k -> new Node());
+                }
+                node.first = Math.min(node.first, rule.index);
+            }
+            node.exact = earliest(node.exact, rule, names);
+        }
+
+        private static Terminal earliest(Terminal current, Rule rule, List<String> names) {
+            return current != null && current.rule.index < rule.index ? current
+                : new Terminal(rule, names.toArray(String[]::new));
+        }
+
+        private static IllegalArgumentException unsupported(String pattern) {
+            return new IllegalArgumentException("Unsupported route pattern: " + pattern);
+        }
+    }
+
+    private record Rule(int index, HttpMethod method, List<String> patterns,
+                        ReactiveAuthorizationManager<AuthorizationContext> manager) {
+    }
+
+    /** A rule ending at a trie node, with the names of the captures along its pattern. */
+    private record Terminal(Rule rule, String[] names) {
+    }
+
+    private static final class Node {
+        final Map<String, Node> literals = new HashMap<>();
+        final List<Capture> captures = new ArrayList<>(1);
+        Terminal exact;
+        Terminal rest;
+        /** Lowest rule index at or below this node, for pruning. */
+        int first = NONE;
+
+        Node capture(String regex) {
+            for (Capture c : captures) {
+                if (Objects.equals(c.regex, regex)) return c.child;
+            }
+            var capture = new Capture(regex, constraint(regex), new Node());
+            captures.add(capture);
+            return capture.child;
+        }
+
+        private static Predicate<String> constraint(String regex) {
+            if (regex == null) return s -> true;
+            // The common numeric id constraint, without a regex matcher per request
+            if (regex.equals("\\d+")) return Node::isDigits;
+            return Pattern.compile(regex).asMatchPredicate();
+        }
+
+        private static boolean isDigits(String s) {
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c < '0' || c > '9') return false;
+            }
+            return true;
+        }
+    }
+
+    private record Capture(String regex, Predicate<String> constraint, Node child) {
+    }
+
+    /** Per-lookup state: the best terminal so far and the captured values along the current branch. */
+    private static final class Search {
+        Terminal best;
+        String[] values;
+        String[] bestValues;
+
+        int bestIndex() {
+            return best == null ? NONE : best.rule.index;
+        }
+
+        void capture(int depth, String value) {
+            if (values == null) values = new String[4];
+            else if (depth == values.length) values = Arrays.copyOf(values, depth * 2);
+            values[depth] = value;
+        }
+
+        void offer(Terminal terminal, int depth) {
+            if (terminal.rule.index >= bestIndex()) return;
+            best = terminal;
+            bestValues = depth == 0 ? null : Arrays.copyOf(values, depth);
+        }
+
+        Map<String, Object> variables() {
+            var variables = new LinkedHashMap<String, Object>(best.names.length * 2);
+            for (int i = 0; i < best.names.length; i++) variables.put(best.names[i], bestValues[i]);
+            return variables;
+        }
+    }
+}
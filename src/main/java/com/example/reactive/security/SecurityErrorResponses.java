@@ -0,0 +1,75 @@
+package com.example.reactive.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.server.ServerAuthenticationEntryPoint;
+import org.springframework.security.web.server.authorization.ServerAccessDeniedHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes the 401 and 403 responses of the security chain. Bodies are encoded once at startup and wrapped
+ * per response without copying, so rejecting a request costs about as little as the check that failed.
+ */
+@Slf4j
+@Component
+public class SecurityErrorResponses implements ServerAuthenticationEntryPoint, ServerAccessDeniedHandler {
+
+    private static final byte[] NOT_AUTHENTICATED = body("Unauthorized", "Not Authenticated");
+    private static final byte[] TOKEN_EXPIRED = body("Unauthorized", InvalidTokenException.EXPIRED.getMessage());
+    private static final byte[] TOKEN_INVALID = body("Unauthorized", InvalidTokenException.INVALID.getMessage());
+    private static final byte[] TOKEN_REVOKED = body("Unauthorized", InvalidTokenException.REVOKED.getMessage());
+    private static final byte[] ACCESS_DENIED = body("Access Denied", "Access Denied");
+
+    // RFC 6750 challenges
+    private static final String BEARER_CHALLENGE = "Bearer";
+    private static final String EXPIRED_CHALLENGE =
+        "Bearer error=\"invalid_token\", error_description=\"The access token expired\"";
+    private static final String REVOKED_CHALLENGE =
+        "Bearer error=\"invalid_token\", error_description=\"The access token was revoked\"";
+    private static final String INVALID_CHALLENGE = "Bearer error=\"invalid_token\"";
+
+    private static byte[] body(String error, String message) {
+        return ("{\"error\":\"" + error + "\",\"message\":\"" + message + "\"}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public Mono<Void> commence(ServerWebExchange exchange, AuthenticationException ex) {
+        var response = exchange.getResponse();
+        if (ex == InvalidTokenException.EXPIRED) {
+            return write(response, HttpStatus.UNAUTHORIZED, EXPIRED_CHALLENGE, TOKEN_EXPIRED);
+        }
+        if (ex == InvalidTokenException.REVOKED) {
+            return write(response, HttpStatus.UNAUTHORIZED, REVOKED_CHALLENGE, TOKEN_REVOKED);
+        }
+        if (ex instanceof InvalidTokenException) {
+            return write(response, HttpStatus.UNAUTHORIZED, INVALID_CHALLENGE, TOKEN_INVALID);
+        }
+        log.debug("Unauthenticated request to {}: {}", exchange.getRequest().getPath(), ex.getMessage());
+        return write(response, HttpStatus.UNAUTHORIZED, BEARER_CHALLENGE, NOT_AUTHENTICATED);
+    }
+
+    @Override
+    public Mono<Void> handle(ServerWebExchange exchange, AccessDeniedException denied) {
+        return write(exchange.getResponse(), HttpStatus.FORBIDDEN, null, ACCESS_DENIED);
+    }
+
+    private static Mono<Void> write(ServerHttpResponse response, HttpStatus status, String challenge, byte[] body) {
+        response.setStatusCode(status);
+        HttpHeaders headers = response.getHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setContentLength(body.length);
+        if (challenge != null) headers.set(HttpHeaders.WWW_AUTHENTICATE, challenge);
+        DataBuffer buffer = response.bufferFactory().wrap(body);
+        return response.writeWith(Mono.just(buffer));
+    }
+}
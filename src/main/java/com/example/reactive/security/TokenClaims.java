@@ -0,0 +1,15 @@
+package com.example.reactive.security;
+
+import java.util.List;
+
+/**
+ * The subset of claims this service reads from the tokens it issues.
+ * Timestamps are epoch seconds; {@code 0} means the claim was absent.
+ */
+public record TokenClaims(String subject, List<String> roles, long expiresAt, long issuedAt,
+                          String issuer, String type, String id) {
+
+    public TokenClaims {
+        roles = roles == null ? List.of() : roles;
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.reactive.security;
+
+import com.example.reactive.config.JwtProperties;
+import com.example.reactive.model.TokenRevocation;
+import com.example.reactive.repository.TokenRevocationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory copy of the live rows of {@code token_revocations}, checked for every authenticated request.
+ * <p>
+ * A Bloom filter over revoked jtis and usernames sits in front of two exact maps: a request whose token
+ * isn't revoked almost always gets a definite "no" from the filter, with no lookup, no allocation and no I/O.
+ * New rows are pulled incrementally (by id) every {@code jwt.revocation.refresh-interval}. Ids are taken at
+ * insert but become visible at commit, so a row can appear below ids already read; rows revoked within
+ * {@code jwt.revocation.late-commit-window} are therefore read again each time, and applying a row twice is
+ * harmless. Entries whose tokens have expired are dropped, and the filter is then rebuilt from what's left
+ * since it can't delete.
+ */
+@Slf4j
+@Component
+@DependsOnDatabaseInitialization
+public class TokenRevocationList {
+
+    private static final long JTI_SEED = 0x6a7469L;
+    private static final long USER_SEED = 0x737562L;
+
+    private final TokenRevocationRepository repository;
+    private final JwtProperties props;
+    private final JwtProperties.Revocation config;
+
+    /** jti → expiry (epoch millis) */
+    private final Map<String, Long> jtis = new ConcurrentHashMap<>();
+    /** username → revocation cut-off; tokens issued at or before it are revoked */
+    private final Map<String, UserCutoff> users = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+    /** Highest row id applied; only written by the (serialized) refresh. */
+    private volatile long lastId;
+
+    private final Counter revoked;
+    private final Counter falsePositives;
+
+    private record UserCutoff(long revokedAtSeconds, long expiresAtMillis) {}
+
+    public TokenRevocationList(TokenRevocationRepository repository, JwtProperties props, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.props = props;
+        this.config = props.getRevocation();
+        this.filter = new BloomFilter(config.getExpectedEntries(), config.getFalsePositiveRate());
+        this.revoked = Counter.builder("jwt.revocation.checks").tag("outcome", "revoked").register(meterRegistry);
+        this.falsePositives = Counter.builder("jwt.revocation.checks").tag("outcome", "false_positive")
+            .register(meterRegistry);
+        Gauge.builder("jwt.revocation.entries", this, r -> r.jtis.size() + r.users.size()).register(meterRegistry);
+    }
+
+    @PostConstruct
+    void load() {
+        // Blocking on purpose: don't serve requests before known revocations are in place
+        refresh().block();
+        log.info("Loaded {} token revocations", jtis.size() + users.size());
+    }
+
+    public boolean isRevoked(TokenClaims claims) {
+        BloomFilter f = filter;
+        String jti = claims.id();
+        if (jti != null && f.mightContain(JTI_SEED, jti)) {
+            if (jtis.containsKey(jti)) return revoked();
+            falsePositives.increment();
+        }
+        String subject = claims.subject();
+        if (subject != null && f.mightContain(USER_SEED, subject)) {
+            UserCutoff cutoff = users.get(subject);
+            if (cutoff != null && claims.issuedAt() <= cutoff.revokedAtSeconds()) return revoked();
+            if (cutoff == null) falsePositives.increment();
+        }
+        return false;
+    }
+
+    private boolean revoked() {
+        revoked.increment();
+        return true;
+    }
+
+    /**
+     * Revokes every access token issued to the user so far. {@code iat} has second precision, so a token
+     * issued later within the same second is caught too.
+     */
+    public Mono<Void> revokeUser(String username) {
+        Instant now = Instant.now();
+        // Any token issued up to now is dead by then, clock skew included
+        Instant expiresAt = now.plusMillis(props.getExpiration()).plusSeconds(JwtService.CLOCK_SKEW_SECONDS);
+        return store(new TokenRevocation(null, null, username, toLocal(now), toLocal(expiresAt)));
+    }
+
+    /** Revokes one access token; the row lives as long as the token would have. */
+    public Mono<Void> revokeToken(TokenClaims claims) {
+        if (claims.id() == null || claims.expiresAt() == 0) {
+            return Mono.error(new IllegalArgumentException("Token has no jti or exp and cannot be revoked individually"));
+        }
+        Instant expiresAt = Instant.ofEpochSecond(claims.expiresAt()).plusSeconds(JwtService.CLOCK_SKEW_SECONDS);
+        return store(new TokenRevocation(null, claims.id(), null, toLocal(Instant.now()), toLocal(expiresAt)));
+    }
+
+    private Mono<Void> store(TokenRevocation revocation) {
+        // Applied locally straight away; other instances pick the row up on their next refresh
+        return repository.save(revocation).doOnNext(this::apply).then();
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.refresh-interval:PT5S}")
+    public Mono<Void> refresh() {
+        return Mono.defer(() -> {
+            long now = System.currentTimeMillis();
+            boolean pruned = jtis.values().removeIf(expiresAt -> expiresAt <= now)
+                | users.values().removeIf(c -> c.expiresAtMillis() <= now);
+            if (pruned || jtis.size() + users.size() > filter.capacity()) rebuild();
+            LocalDateTime clock = LocalDateTime.now();
+            return repository.findLiveAfter(lastId, clock.minus(config.getLateCommitWindow()), clock)
+                .doOnNext(row -> {
+                    apply(row);
+                    lastId = Math.max(lastId, row.getId());
+                })
+                .then();
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.refresh-purge-interval:PT1H}")
+    public Mono<Void> purgeExpired() {
+        return repository.deleteExpired(LocalDateTime.now())
+            .doOnNext(n -> { if (n > 0) log.debug("Purged {} expired token revocations", n); })
+            .then();
+    }
+
+    private void apply(TokenRevocation row) {
+        long expiresAt = row.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        if (expiresAt <= System.currentTimeMillis()) return;
+        // Maps first, filter second: a reader that passes the filter must find the entry
+        if (row.getJti() != null) {
+            jtis.put(row.getJti(), expiresAt);
+            filter.add(JTI_SEED, row.getJti());
+        }
+        if (row.getUsername() != null) {
+            long revokedAt = row.getRevokedAt().atZone(ZoneId.systemDefault()).toEpochSecond();
+            users.merge(row.getUsername(), new UserCutoff(revokedAt, expiresAt),
+                (a, b) -> a.revokedAtSeconds() >= b.revokedAtSeconds() ? a : b);
+            filter.add(USER_SEED, row.getUsername());
+        }
+    }
+
+    /** New filter holding exactly the live entries, sized for at least twice as many. */
+    private synchronized void rebuild() {
+        int live = jtis.size() + users.size();
+        var rebuilt = new BloomFilter(Math.max(config.getExpectedEntries(), 2 * live), config.getFalsePositiveRate());
+        jtis.keySet().forEach(jti -> rebuilt.add(JTI_SEED, jti));
+        users.keySet().forEach(username -> rebuilt.add(USER_SEED, username));
+        filter = rebuilt;
+        // Entries applied by a concurrent revoke while copying went into the old filter: add them again
+        jtis.keySet().forEach(jti -> rebuilt.add(JTI_SEED, jti));
+        users.keySet().forEach(username -> rebuilt.add(USER_SEED, username));
+    }
+
+    private static LocalDateTime toLocal(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+}
@@ -1,76 +1,182 @@
 package com.example.reactive.service;
 
+import com.example.reactive.exception.DuplicateUserException;
+import com.example.reactive.exception.LoginThrottledException;
+import com.example.reactive.exception.ServiceOverloadedException;
 import com.example.reactive.model.JwtResponse;
 import com.example.reactive.model.SignupRequest;
 import com.example.reactive.model.User;
+import com.example.reactive.repository.RefreshTokenRepository;
 import com.example.reactive.repository.UserRepository;
 import com.example.reactive.security.JwtService;
+import com.example.reactive.security.LoginThrottle;
+import com.example.reactive.security.PasswordHashingExecutor;
+import com.example.reactive.security.TokenRevocationList;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class AuthService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
+    private final PasswordHashingExecutor hashingExecutor;
+    private final LoginThrottle loginThrottle;
+    private final RefreshTokenService refreshTokenService;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final TokenRevocationList revocations;
+    private final LastLoginRecorder lastLogins;
+
+    private final Timer passwordMatched;
+    private final Timer passwordMismatched;
+    private final Timer passwordFailed;
+    private final Timer loginSucceeded;
+    private final Timer loginUnknownUser;
+    private final Timer loginBadCredentials;
+    private final Timer loginThrottled;
+    private final Timer loginOverloaded;
+    private final Timer loginFailed;
+
+    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtService jwtService,
+                       PasswordHashingExecutor hashingExecutor, LoginThrottle loginThrottle,
+                       RefreshTokenService refreshTokenService, RefreshTokenRepository refreshTokenRepository,
+                       TokenRevocationList revocations, LastLoginRecorder lastLogins, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.jwtService = jwtService;
+        this.hashingExecutor = hashingExecutor;
+        this.loginThrottle = loginThrottle;
+        this.refreshTokenService = refreshTokenService;
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.revocations = revocations;
+        this.lastLogins = lastLogins;
+        // Includes the wait for a hashing thread, unlike password.hashing.duration
+        this.passwordMatched = timer(meterRegistry, "auth.password.check", "match");
+        this.passwordMismatched = timer(meterRegistry, "auth.password.check", "mismatch");
+        this.passwordFailed = timer(meterRegistry, "auth.password.check", "error");
+        this.loginSucceeded = timer(meterRegistry, "auth.login", "success");
+        this.loginUnknownUser = timer(meterRegistry, "auth.login", "unknown_user");
+        this.loginBadCredentials = timer(meterRegistry, "auth.login", "bad_credentials");
+        this.loginThrottled = timer(meterRegistry, "auth.login", "throttled");
+        this.loginOverloaded = timer(meterRegistry, "auth.login", "overloaded");
+        this.loginFailed = timer(meterRegistry, "auth.login", "error");
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String name, String outcome) {
+        return Timer.builder(name).tag("outcome", outcome).publishPercentileHistogram().register(meterRegistry);
+    }
 
     @PostConstruct
     void logEncoder() {
-        System.out.println("Using PasswordEncoder: " + passwordEncoder.getClass().getName());
+        log.debug("Using PasswordEncoder {}", passwordEncoder.getClass().getName());
     }
 
-    @PostConstruct
-    void printAdminBcrypt() {
-        System.out.println("bcrypt of 'password' for this app: " + passwordEncoder.encode("password"));
+    public Mono<JwtResponse> login(String username, String rawPassword, String clientAddress) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return doLogin(username, rawPassword, clientAddress)
+                .doOnSuccess(response -> record(response == null ? loginUnknownUser : loginSucceeded, start))
+                .doOnError(e -> record(loginOutcome(e), start));
+        });
     }
-    public Mono<JwtResponse> login(String username, String rawPassword) {
-        return userRepository.findByUsername(username)
-                .flatMap(user -> Mono.fromCallable(() -> {
-                            boolean ok = passwordEncoder.matches(rawPassword, user.getPassword());
-                            if (!ok) {
-                                // TEMP LOG so you can see why
-                                System.out.println("LOGIN FAIL for " + username + " - storedHash=" + user.getPassword());
-                            }
-                            return ok;
-                        })
-//            .flatMap(user -> Mono.fromCallable(() -> passwordEncoder.matches(rawPassword, user.getPassword()))
-                .subscribeOn(Schedulers.boundedElastic())
-                .filter(Boolean::booleanValue)
-                .switchIfEmpty(Mono.error(new RuntimeException("Invalid credentials")))
-                .map(__ -> new UsernamePasswordAuthenticationToken(user.getUsername(), null, user.getAuthorities()))
-                .flatMap(jwtService::generateToken)
-                .map(tok -> new JwtResponse(tok, "Bearer", user.getUsername()))
-            );
+
+    private Timer loginOutcome(Throwable e) {
+        if (e instanceof BadCredentialsException) return loginBadCredentials;
+        if (e instanceof LoginThrottledException) return loginThrottled;
+        if (ServiceOverloadedException.in(e) != null) return loginOverloaded;
+        return loginFailed;
+    }
+
+    private static void record(Timer timer, long start) {
+        timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private Mono<JwtResponse> doLogin(String username, String rawPassword, String clientAddress) {
+        return Mono.defer(() -> {
+                    var retryAfter = loginThrottle.check(username, clientAddress);
+                    return retryAfter == null ? userRepository.findByUsername(username)
+                            : Mono.error(new LoginThrottledException(retryAfter));
+                })
+                .flatMap(user -> checkPassword(rawPassword, user.getPassword())
+                        .filter(Boolean::booleanValue)
+                        .switchIfEmpty(Mono.error(() -> new BadCredentialsException("Invalid credentials")))
+                        .flatMap(__ -> issueTokens(user))
+                        .doOnNext(__ -> lastLogins.record(user.getId())))
+                // Only failures count against the throttle: unknown user (empty) or wrong password
+                .doOnSuccess(response -> { if (response == null) loginThrottle.recordFailure(username, clientAddress); })
+                .doOnError(BadCredentialsException.class, e -> loginThrottle.recordFailure(username, clientAddress));
+    }
+
+    private Mono<Boolean> checkPassword(String rawPassword, String encodedPassword) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return hashingExecutor.matches(rawPassword, encodedPassword)
+                .doOnNext(ok -> record(ok ? passwordMatched : passwordMismatched, start))
+                .doOnError(e -> record(passwordFailed, start));
+        });
+    }
+
+    /** Trades a refresh token for a new access/refresh pair; the presented token is used up. */
+    public Mono<JwtResponse> refresh(String refreshToken) {
+        return refreshTokenService.redeem(refreshToken)
+            .flatMap(this::issueTokens);
+    }
+
+    /**
+     * Cuts a user off: revokes their access tokens issued so far and deletes their refresh tokens.
+     * Empty if there is no such user.
+     */
+    public Mono<User> revokeUserTokens(Long userId) {
+        return userRepository.findById(userId)
+            .flatMap(user -> revocations.revokeUser(user.getUsername())
+                .then(refreshTokenRepository.deleteByUserId(user.getId()))
+                .thenReturn(user));
+    }
+
+    /** Revokes a single access token, e.g. one that leaked. Fails if the token isn't a valid access token. */
+    public Mono<Void> revokeToken(String accessToken) {
+        return jwtService.validateAndGetClaims(accessToken)
+            .filter(claims -> "access".equals(claims.type()))
+            .switchIfEmpty(Mono.error(() -> new IllegalArgumentException("Not an access token")))
+            .flatMap(revocations::revokeToken);
+    }
+
+    private Mono<JwtResponse> issueTokens(User user) {
+        var auth = new UsernamePasswordAuthenticationToken(user.getUsername(), null, user.getAuthorities());
+        return Mono.zip(jwtService.generateToken(auth), refreshTokenService.issue(user))
+            .map(t -> new JwtResponse(t.getT1(), "Bearer", user.getUsername(), t.getT2()));
     }
 
+    /**
+     * Inserts straight away and lets the unique constraints on username and email catch duplicates,
+     * which also closes the race between two concurrent signups for the same name.
+     */
     public Mono<User> signup(SignupRequest req) {
-        return Mono.zip(userRepository.existsByUsername(req.getUsername()),
-                        userRepository.existsByEmail(req.getEmail()))
-            .flatMap(t -> {
-                if (t.getT1()) return Mono.error(new RuntimeException("Username already exists"));
-                if (t.getT2()) return Mono.error(new RuntimeException("Email already exists"));
-                return Mono.fromCallable(() -> passwordEncoder.encode(req.getPassword()))
-                    .subscribeOn(Schedulers.boundedElastic())
-                    .map(hash -> User.builder()
-                        .username(req.getUsername())
-                        .email(req.getEmail())
-                        .password(hash)
-                        .roles(Set.of("USER"))
-                        .enabled(true)
-                        .accountNonExpired(true)
-                        .accountNonLocked(true)
-                        .credentialsNonExpired(true)
-                        .build())
-                    .flatMap(userRepository::save);
-            });
+        return hashingExecutor.encode(req.getPassword())
+            .map(hash -> User.builder()
+                .username(req.getUsername())
+                .email(req.getEmail())
+                .password(hash)
+                .roles(Set.of("USER"))
+                .enabled(true)
+                .accountNonExpired(true)
+                .accountNonLocked(true)
+                .credentialsNonExpired(true)
+                .build())
+            .flatMap(userRepository::save)
+            .onErrorMap(DataIntegrityViolationException.class, DuplicateUserException::translate);
     }
 }
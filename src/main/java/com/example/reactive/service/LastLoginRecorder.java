@@ -0,0 +1,165 @@
+package com.example.reactive.service;
+
+import com.example.reactive.config.LastLoginProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.spi.Statement;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Write-behind for {@code users.last_login_at}, so a login costs a map update instead of an UPDATE.
+ * <p>
+ * Only the latest login per user is kept, for at most {@code max-pending} users. A flush runs every
+ * {@code flush-interval}, or sooner once {@code batch-size} users are waiting, and writes them
+ * {@code batch-size} rows at a time as one batched statement. A row only moves forward in time, so a late
+ * batch (or another instance's) never overwrites a newer login. Whatever is pending is written on shutdown.
+ * <p>
+ * Until then the column lags by up to a flush interval, and cached users may show an older value still.
+ */
+@Slf4j
+@Component
+public class LastLoginRecorder {
+
+    private static final String UPDATE = "UPDATE users SET last_login_at = $1 "
+        + "WHERE id = $2 AND (last_login_at IS NULL OR last_login_at < $1)";
+
+    private final DatabaseClient databaseClient;
+    private final LastLoginProperties props;
+    private final Map<Long, LocalDateTime> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushing = new AtomicBoolean();
+    private final Counter written;
+    private final Counter dropped;
+    private final Timer flushTimer;
+
+    public LastLoginRecorder(DatabaseClient databaseClient, LastLoginProperties props, MeterRegistry meterRegistry) {
+        this.databaseClient = databaseClient;
+        this.props = props;
+        Gauge.builder("auth.last-login.pending", pending, Map::size)
+            .description("Users whose last login is not written yet")
+            .register(meterRegistry);
+        this.written = Counter.builder("auth.last-login.written")
+            .description("Last-login timestamps written")
+            .register(meterRegistry);
+        this.dropped = Counter.builder("auth.last-login.dropped")
+            .description("Logins not recorded because max-pending users were already waiting")
+            .register(meterRegistry);
+        this.flushTimer = Timer.builder("auth.last-login.flush")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+
+    /** Notes a login now; never blocks and never fails the login. */
+    public void record(long userId) {
+        if (!props.isEnabled()) return;
+        LocalDateTime now = LocalDateTime.now();
+        if (pending.size() >= props.getMaxPending() && !pending.containsKey(userId)) {
+            dropped.increment();
+            requestFlush();
+            return;
+        }
+        pending.merge(userId, now, LastLoginRecorder::later);
+        if (pending.size() >= props.getBatchSize()) requestFlush();
+    }
+
+    @Scheduled(fixedDelayString = "${security.last-login.flush-interval:PT5S}")
+    void flushPending() {
+        requestFlush();
+    }
+
+    /** Starts a flush unless one is running; the one running picks up whatever arrives meanwhile. */
+    private void requestFlush() {
+        if (pending.isEmpty() || !flushing.compareAndSet(false, true)) return;
+        drain()
+            // The size trigger fires on the login path, which must not run the UPDATE itself
+            .subscribeOn(Schedulers.boundedElastic())
+            .doFinally(signal -> {
+                flushing.set(false);
+                if (pending.size() >= props.getBatchSize()) requestFlush();
+            })
+            .subscribe(null, e -> log.warn("Writing last logins failed; will retry on the next flush", e));
+    }
+
+    /** Writes out pending logins a batch at a time until none are left. */
+    private Mono<Long> drain() {
+        return Mono.fromSupplier(this::takeBatch)
+            .filter(batch -> !batch.isEmpty())
+            .flatMap(this::write)
+            .repeat(() -> !pending.isEmpty())
+            .reduce(0L, Long::sum);
+    }
+
+    /**
+     * Removes up to a batch of entries. An entry updated since it was read fails the conditional remove and
+     * stays for the next batch, so no login is lost between read and write.
+     */
+    private List<Map.Entry<Long, LocalDateTime>> takeBatch() {
+        int size = Math.max(1, props.getBatchSize());
+        List<Map.Entry<Long, LocalDateTime>> batch = new ArrayList<>(Math.min(size, pending.size()));
+        for (Map.Entry<Long, LocalDateTime> entry : pending.entrySet()) {
+            if (batch.size() == size) break;
+            if (pending.remove(entry.getKey(), entry.getValue())) batch.add(Map.entry(entry.getKey(), entry.getValue()));
+        }
+        return batch;
+    }
+
+    private Mono<Long> write(List<Map.Entry<Long, LocalDateTime>> batch) {
+        long start = System.nanoTime();
+        return databaseClient.inConnectionMany(connection -> {
+                Statement statement = connection.createStatement(UPDATE);
+                for (int i = 0; i < batch.size(); i++) {
+                    if (i > 0) statement.add();
+                    statement.bind(0, batch.get(i).getValue()).bind(1, batch.get(i).getKey());
+                }
+                return Flux.from(statement.execute()).flatMap(result -> Mono.from(result.getRowsUpdated()));
+            })
+            .then(Mono.fromSupplier(() -> {
+                written.increment(batch.size());
+                flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return (long) batch.size();
+            }))
+            // Put the batch back, behind any newer login that came in meanwhile, for the next flush to retry
+            .doOnError(e -> batch.forEach(entry -> pending.merge(entry.getKey(), entry.getValue(),
+                LastLoginRecorder::later)));
+    }
+
+    private static LocalDateTime later(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        long deadline = System.nanoTime() + props.getShutdownTimeout().toNanos();
+        // Let a running flush finish, then write the rest here
+        while (!flushing.compareAndSet(false, true)) {
+            if (System.nanoTime() - deadline >= 0) {
+                log.warn("Shutdown timed out waiting for a last-login flush; {} users not written", pending.size());
+                return;
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        try {
+            Long count = drain().block(props.getShutdownTimeout());
+            log.info("Wrote last logins of {} users on shutdown", count);
+        } catch (RuntimeException e) {
+            log.warn("Writing last logins on shutdown failed; {} users not written", pending.size(), e);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.reactive.service;
+
+import com.example.reactive.config.JwtProperties;
+import com.example.reactive.model.User;
+import com.example.reactive.repository.RefreshTokenRepository;
+import com.example.reactive.repository.UserRepository;
+import com.example.reactive.security.JwtService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
+
+/**
+ * Issues and redeems single-use refresh tokens. Each token has a row in {@code refresh_tokens};
+ * redeeming deletes the row, so a token works once and a replayed one is rejected.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RefreshTokenService {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final JwtService jwtService;
+    private final JwtProperties props;
+
+    public Mono<String> issue(User user) {
+        String jti = UUID.randomUUID().toString();
+        Instant expiresAt = Instant.now().plusMillis(props.getRefreshExpiration());
+        return refreshTokenRepository.insert(jti, user.getId(), LocalDateTime.ofInstant(expiresAt, ZoneId.systemDefault()))
+            .then(jwtService.generateRefreshToken(user.getUsername(), jti, expiresAt));
+    }
+
+    /** Verifies the token, deletes its row and emits its still-active owner; errors otherwise. */
+    public Mono<User> redeem(String refreshToken) {
+        return jwtService.validateAndGetClaims(refreshToken)
+            .filter(claims -> "refresh".equals(claims.type()) && claims.id() != null)
+            .flatMap(claims -> refreshTokenRepository.consume(claims.id(), LocalDateTime.now())
+                .flatMap(row -> userRepository.findById(row.getUserId()))
+                .filter(user -> user.getUsername().equals(claims.subject())))
+            .filter(user -> user.isEnabled() && user.isAccountNonLocked() && user.isAccountNonExpired())
+            .switchIfEmpty(Mono.error(new RuntimeException("Invalid refresh token")));
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.refresh-purge-interval:PT1H}")
+    public Mono<Void> purgeExpired() {
+        return refreshTokenRepository.deleteExpired(LocalDateTime.now())
+            .doOnNext(n -> { if (n > 0) log.debug("Purged {} expired refresh tokens", n); })
+            .then();
+    }
+}
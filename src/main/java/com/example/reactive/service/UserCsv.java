@@ -0,0 +1,103 @@
+package com.example.reactive.service;
+
+import com.example.reactive.model.User;
+import com.example.reactive.model.UserImportRow;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The CSV layout of user import/export. Fields follow RFC 4180 quoting, records are one per line,
+ * and roles are {@code |}-separated inside their field.
+ * <p>
+ * Import needs a header line naming the columns ({@code username,email,password[,roles]}, any order);
+ * export writes {@link #EXPORT_HEADER}.
+ */
+final class UserCsv {
+
+    static final String EXPORT_HEADER = "id,username,email,roles,enabled\n";
+
+    private UserCsv() {
+    }
+
+    /** Import rows from CSV lines: the first non-blank line is the header, blank lines are skipped. */
+    static Flux<UserImportRow> rows(Flux<String> lines) {
+        return lines.filter(line -> !line.isBlank())
+            .switchOnFirst((first, all) -> {
+                if (!first.hasValue()) return all.cast(UserImportRow.class);
+                Columns columns = Columns.parse(first.get());
+                return all.skip(1).map(columns::row);
+            });
+    }
+
+    /** Column positions taken from the import header line. */
+    record Columns(int username, int email, int password, int roles) {
+
+        static Columns parse(String headerLine) {
+            List<String> names = split(headerLine).stream().map(n -> n.trim().toLowerCase(Locale.ROOT)).toList();
+            var columns = new Columns(names.indexOf("username"), names.indexOf("email"),
+                names.indexOf("password"), names.indexOf("roles"));
+            if (columns.username < 0 || columns.email < 0 || columns.password < 0) {
+                throw new IllegalArgumentException("CSV header must name username, email and password columns");
+            }
+            return columns;
+        }
+
+        UserImportRow row(String line) {
+            List<String> fields = split(line);
+            String roles = field(fields, this.roles);
+            return new UserImportRow(field(fields, username), field(fields, email), field(fields, password),
+                roles == null || roles.isBlank() ? null : new LinkedHashSet<>(Arrays.asList(roles.split("\\|"))));
+        }
+
+        private static String field(List<String> fields, int index) {
+            return index >= 0 && index < fields.size() ? fields.get(index) : null;
+        }
+    }
+
+    static String format(User user) {
+        Set<String> roles = user.getRoles() == null ? Set.of() : new TreeSet<>(user.getRoles());
+        return user.getId() + "," + quote(user.getUsername()) + "," + quote(user.getEmail()) + ","
+            + quote(String.join("|", roles)) + "," + user.isEnabled() + "\n";
+    }
+
+    static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        var field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c != '\r') {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String quote(String value) {
+        if (value == null) return "";
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) return value;
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -1,6 +1,9 @@
 package com.example.reactive.service;
 
+import com.example.reactive.config.UserAdminProperties;
+import com.example.reactive.model.BulkDisableProgress;
 import com.example.reactive.model.User;
+import com.example.reactive.repository.RoleCatalog;
 import com.example.reactive.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -12,13 +15,16 @@ import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.function.Function;
+
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class UserService implements ReactiveUserDetailsService {
 
     private final UserRepository userRepository;
-    private final ReactiveSecurityService securityService;
+    private final UserAdminProperties adminProperties;
+    private final RoleCatalog roleCatalog;
 
     @Override
     public Mono<UserDetails> findByUsername(String username) {
@@ -32,28 +38,61 @@ public class UserService implements ReactiveUserDetailsService {
             .switchIfEmpty(Mono.error(new RuntimeException("User not found with id: " + id)));
     }
 
-    public Flux<User> findAllUsers() {
-        return userRepository.findAll();
+    /** The requested page size, defaulted and capped by {@code admin.users.*}. */
+    public int pageSize(Integer requested) {
+        if (requested == null || requested <= 0) return adminProperties.getPageSize();
+        return Math.min(requested, adminProperties.getMaxPageSize());
+    }
+
+    public Flux<User> findUsersPage(long afterId, int size) {
+        return userRepository.findPageAfter(afterId, size);
+    }
+
+    public Mono<Long> countUsers() {
+        return userRepository.count();
+    }
+
+    /**
+     * All users after {@code afterId}, fetched one keyset page at a time. With a prefetch of 1,
+     * {@code flatMapIterable} asks {@code expand} for the next page once it has emitted the last user of the
+     * current one, whatever the subscriber's demand, so one page is buffered at most while the next is read.
+     */
+    public Flux<User> streamUsers(long afterId) {
+        int size = Math.max(1, adminProperties.getStreamPageSize());
+        return userRepository.findPageAfter(afterId, size).collectList()
+            .expand(page -> page.size() < size
+                ? Mono.empty()
+                : userRepository.findPageAfter(page.get(page.size() - 1).getId(), size).collectList())
+            .flatMapIterable(Function.identity(), 1);
+    }
+
+    /** A keyset page of the users holding {@code role} (with or without the ROLE_ prefix). */
+    public Flux<User> findUsersByRole(String role, long afterId, int size) {
+        Integer roleId = roleCatalog.findId(role.startsWith("ROLE_") ? role.substring("ROLE_".length()) : role);
+        return roleId == null ? Flux.empty() : userRepository.findPageByRole(roleId, afterId, size);
     }
 
-    public Mono<User> updateUser(Long id, User updateRequest) {
-        return securityService.canAccessUserResource(id)
-            .filter(Boolean::booleanValue)
-            .switchIfEmpty(Mono.error(new AccessDeniedException("Not authorized to update this user")))
-            .flatMap(__ -> userRepository.findById(id)
-                .map(u -> {
-                    if (updateRequest.getEmail() != null) u.setEmail(updateRequest.getEmail());
-                    if (updateRequest.getRoles() != null) u.setRoles(updateRequest.getRoles());
-                    return u;
-                })
-                .flatMap(userRepository::save));
+    /**
+     * Self-service profile update: applies the email change in a single statement if {@code currentUsername}
+     * owns the row. Roles are not self-service; a request carrying them is rejected before anything is written.
+     * Errors with {@link AccessDeniedException} if the user exists but belongs to someone else,
+     * completes empty if there is no such user.
+     */
+    public Mono<User> updateUser(Long id, String currentUsername, User updateRequest) {
+        if (updateRequest.getRoles() != null && !updateRequest.getRoles().isEmpty()) {
+            return Mono.error(new IllegalArgumentException("Roles cannot be changed through the profile"));
+        }
+        return userRepository.updateOwned(id, currentUsername, updateRequest.getEmail())
+            // Nothing updated: only now pay for a second query to tell 403 from 404
+            .switchIfEmpty(Mono.defer(() -> userRepository.existsById(id)
+                .flatMap(exists -> exists
+                    ? Mono.error(new AccessDeniedException("Not authorized to update this user"))
+                    : Mono.empty())));
     }
 
+    /** Callers are guarded by {@code @RequiresRole("ADMIN")}. */
     public Mono<Void> deleteUser(Long id) {
-        return securityService.hasRole("ADMIN")
-            .filter(Boolean::booleanValue)
-            .switchIfEmpty(Mono.error(new AccessDeniedException("Only admins can delete users")))
-            .flatMap(__ -> userRepository.deleteById(id));
+        return userRepository.deleteById(id);
     }
 
     public Mono<Boolean> existsByUsername(String username) {
@@ -70,10 +109,15 @@ public class UserService implements ReactiveUserDetailsService {
             .flatMap(name -> userRepository.findByUsername(name));
     }
 
-    public Mono<Long> bulkDisableUsers(reactor.core.publisher.Flux<Long> ids) {
-        return ids.flatMap(id -> userRepository.findById(id)
-                .map(u -> { u.setEnabled(false); return u; })
-                .flatMap(userRepository::save))
-            .count();
+    /**
+     * Disables users in chunks of {@code admin.users.bulk-chunk-size} ids, one UPDATE per chunk and
+     * one chunk at a time, so ids are only pulled from the request as fast as the database takes them.
+     * Emits the running totals after each chunk.
+     */
+    public Flux<BulkDisableProgress> bulkDisableUsers(Flux<Long> ids) {
+        return ids.buffer(Math.max(1, adminProperties.getBulkChunkSize()))
+            .concatMap(chunk -> userRepository.disableAll(chunk)
+                .map(rows -> new BulkDisableProgress(1, chunk.size(), rows)))
+            .scan(BulkDisableProgress::plus);
     }
 }
@@ -0,0 +1,173 @@
+package com.example.reactive.service;
+
+import com.example.reactive.config.UserAdminProperties;
+import com.example.reactive.exception.DuplicateUserException;
+import com.example.reactive.exception.ServiceOverloadedException;
+import com.example.reactive.model.UserImportResult;
+import com.example.reactive.model.UserImportRow;
+import com.example.reactive.repository.RoleCatalog;
+import com.example.reactive.repository.UserRoleIndex;
+import com.example.reactive.security.PasswordHashingExecutor;
+import io.r2dbc.spi.Statement;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk account import and export for onboarding, as NDJSON or CSV (see {@link UserCsv}).
+ * <p>
+ * Import rows are validated, then their passwords are hashed on the shared {@link PasswordHashingExecutor}
+ * with bounded concurrency (backing off while the pool sheds load, so logins keep their share).
+ * Hashed rows are inserted {@code import-batch-size} at a time as one multi-row statement in a
+ * transaction, together with their role index entries. If a batch violates a constraint it is
+ * rolled back and replayed row by row, so every row gets its own result and one bad row never
+ * aborts the run. Results come back in input order.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserTransferService {
+
+    private static final String INSERT = "INSERT INTO users (username, email, password, role_mask, enabled, "
+        + "account_non_expired, account_non_locked, credentials_non_expired) "
+        + "VALUES ($1, $2, $3, $4, TRUE, TRUE, TRUE, TRUE)";
+
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+    private final PasswordHashingExecutor hashingExecutor;
+    private final UserAdminProperties props;
+    private final Validator validator;
+    private final UserService userService;
+    private final RoleCatalog roleCatalog;
+    private final UserRoleIndex userRoleIndex;
+
+    public Flux<UserImportResult> importCsv(Flux<String> lines) {
+        return importUsers(UserCsv.rows(lines));
+    }
+
+    /** Every user as CSV lines, header first, read page by page from the database as the client consumes them. */
+    public Flux<String> exportCsv() {
+        return Flux.concat(Mono.just(UserCsv.EXPORT_HEADER), userService.streamUsers(0).map(UserCsv::format));
+    }
+
+    public Flux<UserImportResult> importUsers(Flux<UserImportRow> rows) {
+        int concurrency = props.getImportHashConcurrency() > 0
+            ? props.getImportHashConcurrency() : Runtime.getRuntime().availableProcessors();
+        return rows.index()
+            .flatMapSequential(indexed -> prepare(indexed.getT1() + 1, indexed.getT2()), concurrency)
+            .buffer(Math.max(1, props.getImportBatchSize()))
+            .concatMap(this::insertBatch);
+    }
+
+    /** A row ready to insert ({@code hash} set) or already failed ({@code failure} set). */
+    private record Pending(long row, UserImportRow user, String hash, UserImportResult failure) {
+    }
+
+    private Mono<Pending> prepare(long row, UserImportRow user) {
+        Set<ConstraintViolation<UserImportRow>> violations = validator.validate(user);
+        if (!violations.isEmpty()) {
+            String error = violations.stream()
+                .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+            return Mono.just(failed(row, user, error));
+        }
+        return roleCatalog.register(roles(user))
+            .then(hashingExecutor.encode(user.getPassword()))
+            .retryWhen(Retry.backoff(props.getImportOverloadRetries(), props.getImportOverloadBackoff())
+                .maxBackoff(Duration.ofSeconds(1))
+                .filter(ServiceOverloadedException.class::isInstance)
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+            .map(hash -> new Pending(row, user, hash, null))
+            .onErrorResume(e -> Mono.just(failed(row, user, e.getMessage())));
+    }
+
+    private Flux<UserImportResult> insertBatch(List<Pending> batch) {
+        List<Pending> ready = batch.stream().filter(p -> p.failure() == null).toList();
+        Flux<UserImportResult> inserted = ready.isEmpty() ? Flux.empty()
+            : insertAll(ready)
+                .onErrorResume(DataIntegrityViolationException.class, e ->
+                    Flux.fromIterable(ready).concatMap(this::insertOne));
+        return Flux.fromIterable(batch)
+            .filter(p -> p.failure() != null)
+            .map(Pending::failure)
+            .mergeWith(inserted)
+            .collectSortedList(Comparator.comparingLong(UserImportResult::getRow))
+            .flatMapIterable(results -> results);
+    }
+
+    /** All rows in one statement execution and transaction; fails as a whole on any violation. */
+    private Flux<UserImportResult> insertAll(List<Pending> rows) {
+        return databaseClient.inConnectionMany(connection -> {
+                Statement statement = connection.createStatement(INSERT).returnGeneratedValues("id");
+                for (int i = 0; i < rows.size(); i++) {
+                    if (i > 0) statement.add();
+                    bind(statement, rows.get(i));
+                }
+                return Flux.from(statement.execute())
+                    .concatMap(result -> result.map((r, meta) -> r.get("id", Long.class)));
+            })
+            .collectList()
+            .flatMap(ids -> userRoleIndex.reindex(ids).thenReturn(ids))
+            .map(ids -> {
+                List<UserImportResult> results = new ArrayList<>(rows.size());
+                for (int i = 0; i < rows.size(); i++) {
+                    Pending p = rows.get(i);
+                    results.add(UserImportResult.created(p.row(), p.user().getUsername(), ids.get(i)));
+                }
+                return results;
+            })
+            .as(transactionalOperator::transactional)
+            .flatMapIterable(results -> results);
+    }
+
+    private Mono<UserImportResult> insertOne(Pending p) {
+        return databaseClient.inConnection(connection -> {
+                Statement statement = connection.createStatement(INSERT).returnGeneratedValues("id");
+                bind(statement, p);
+                return Mono.from(statement.execute())
+                    .flatMap(result -> Mono.from(result.map((r, meta) -> r.get("id", Long.class))));
+            })
+            .flatMap(id -> userRoleIndex.reindex(List.of(id)).thenReturn(id))
+            .as(transactionalOperator::transactional)
+            .map(id -> UserImportResult.created(p.row(), p.user().getUsername(), id))
+            .onErrorResume(e -> {
+                Throwable cause = e instanceof DataIntegrityViolationException dive ? DuplicateUserException.translate(dive) : e;
+                if (!(cause instanceof DuplicateUserException)) {
+                    log.warn("Import of row {} failed", p.row(), e);
+                }
+                return Mono.just(UserImportResult.failed(p.row(), p.user().getUsername(),
+                    cause instanceof DuplicateUserException ? cause.getMessage() : "Insert failed"));
+            });
+    }
+
+    private void bind(Statement statement, Pending p) {
+        statement.bind(0, p.user().getUsername())
+            .bind(1, p.user().getEmail())
+            .bind(2, p.hash())
+            .bind(3, roleCatalog.maskOf(roles(p.user())));
+    }
+
+    private static Set<String> roles(UserImportRow user) {
+        return user.getRoles() == null || user.getRoles().isEmpty() ? Set.of("USER") : user.getRoles();
+    }
+
+    private static Pending failed(long row, UserImportRow user, String error) {
+        return new Pending(row, user, null, UserImportResult.failed(row, user.getUsername(), error));
+    }
+}
@@ -1,16 +1,22 @@
 CREATE TABLE IF NOT EXISTS users (
   id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
-  username VARCHAR(50) UNIQUE NOT NULL,
-  email VARCHAR(100) UNIQUE NOT NULL,
+  username VARCHAR(50) NOT NULL,
+  email VARCHAR(100) NOT NULL,
   password VARCHAR(255) NOT NULL,
+  -- Legacy comma-separated roles; moved into role_mask/user_roles on startup (RoleStorageMigration)
   roles VARCHAR(255),
+  -- Bit n set = role with roles.id n
+  role_mask BIGINT DEFAULT 0 NOT NULL,
   enabled BOOLEAN DEFAULT TRUE,
   account_non_expired BOOLEAN DEFAULT TRUE,
   account_non_locked BOOLEAN DEFAULT TRUE,
   credentials_non_expired BOOLEAN DEFAULT TRUE,
   created_at TIMESTAMP,
   updated_at TIMESTAMP,
-  last_login_at TIMESTAMP
+  last_login_at TIMESTAMP,
+  -- Named so signup can tell which one a duplicate insert violated
+  CONSTRAINT uk_users_username UNIQUE (username),
+  CONSTRAINT uk_users_email UNIQUE (email)
 );
 
 
@@ -19,4 +25,44 @@ MERGE INTO users (username, email, password, roles,
     KEY(username)
     VALUES ('admin','admin@example.com',
     '{bcrypt}$2a$10$t93m62qD4RKlmudyRtpZPe6M6dYEImWxrf7iQnWokT7uDQoZuK7X2', -- "password"
-    'ADMIN,USER', true, true, true, true);
\ No newline at end of file
+    'ADMIN,USER', true, true, true, true);
+
+CREATE TABLE IF NOT EXISTS roles (
+  id INT PRIMARY KEY CHECK (id BETWEEN 0 AND 62),
+  name VARCHAR(50) NOT NULL,
+  CONSTRAINT uk_roles_name UNIQUE (name)
+);
+
+MERGE INTO roles (id, name) KEY(id) VALUES (0, 'USER'), (1, 'ADMIN');
+
+-- Index of role_mask for "users with role X"; keyed role first so that lookup is a range scan
+CREATE TABLE IF NOT EXISTS user_roles (
+  role_id INT NOT NULL REFERENCES roles(id),
+  user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+  PRIMARY KEY (role_id, user_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_user_roles_user ON user_roles(user_id);
+
+CREATE TABLE IF NOT EXISTS refresh_tokens (
+  jti VARCHAR(36) PRIMARY KEY,
+  user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+  expires_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_user ON refresh_tokens(user_id);
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_expires ON refresh_tokens(expires_at);
+
+-- Revoked access tokens: one token by jti, or every token of a user issued up to revoked_at.
+-- A row is only needed until the tokens it covers would have expired anyway (expires_at).
+CREATE TABLE IF NOT EXISTS token_revocations (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  jti VARCHAR(36),
+  username VARCHAR(50),
+  revoked_at TIMESTAMP NOT NULL,
+  expires_at TIMESTAMP NOT NULL,
+  CHECK (jti IS NOT NULL OR username IS NOT NULL)
+);
+
+CREATE INDEX IF NOT EXISTS idx_token_revocations_expires ON token_revocations(expires_at);
+CREATE INDEX IF NOT EXISTS idx_token_revocations_revoked ON token_revocations(revoked_at);
@@ -0,0 +1,56 @@
+package com.example.reactive.config;
+
+import com.example.reactive.repository.RoleCatalog;
+import io.r2dbc.spi.ConnectionFactories;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/** The users.role_mask converters, against a role catalog backed by a throwaway in-memory H2. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoleConvertersBenchmark {
+
+    private ConvertersConfig.RoleMaskReadConverter read;
+    private ConvertersConfig.RoleMaskWriteConverter write;
+    private Set<String> roles;
+    private long mask;
+
+    @Setup
+    public void setup() {
+        var client = DatabaseClient.create(ConnectionFactories.get("r2dbc:h2:mem:///roles-bench?options=DB_CLOSE_DELAY=-1"));
+        client.sql("CREATE TABLE roles (id INT PRIMARY KEY, name VARCHAR(50) NOT NULL UNIQUE)").then().block();
+        var catalog = new RoleCatalog(client);
+        catalog.register(List.of("USER", "ADMIN")).block();
+        read = new ConvertersConfig.RoleMaskReadConverter(catalog);
+        write = new ConvertersConfig.RoleMaskWriteConverter(catalog);
+        roles = Set.of("USER", "ADMIN");
+        mask = catalog.maskOf(roles);
+    }
+
+    @Benchmark
+    public Set<String> readRoles() {
+        return read.convert(mask);
+    }
+
+    @Benchmark
+    public Long writeRoles() {
+        return write.convert(roles);
+    }
+}
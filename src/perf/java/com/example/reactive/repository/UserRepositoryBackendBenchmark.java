@@ -0,0 +1,109 @@
+package com.example.reactive.repository;
+
+import com.example.reactive.ReactiveSecurityApplication;
+import com.example.reactive.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.Flux;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The two {@code database.users.backend} implementations against the same in-memory H2 schema, called directly
+ * (below the user cache). Single calls show per-statement overhead; {@code *Concurrent} keeps
+ * {@value #CONCURRENCY} lookups in flight, which is where R2DBC multiplexing and virtual threads differ.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserRepositoryBackendBenchmark {
+
+    private static final int USERS = 1_000;
+    private static final int CONCURRENCY = 64;
+
+    @Param({"r2dbc", "jdbc"})
+    public String backend;
+
+    private ConfigurableApplicationContext app;
+    private UserRepository users;
+    private User existing;
+
+    @Setup
+    public void setup() {
+        String db = "bench-" + UUID.randomUUID();
+        app = SpringApplication.run(ReactiveSecurityApplication.class,
+            "--server.port=0",
+            "--spring.r2dbc.url=r2dbc:h2:mem:///" + db + "?options=DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+            "--database.users.jdbc.url=jdbc:h2:mem:" + db + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+            "--database.users.backend=" + backend,
+            "--logging.level.root=WARN",
+            "--logging.level.org.springframework.security=WARN",
+            "--logging.level.org.springframework.web.reactive=WARN",
+            "--logging.level.reactor.netty.http.server=WARN");
+        users = app.getBean("userRepositoryBackend", UserRepository.class);
+        Flux.range(0, USERS)
+            .concatMap(i -> users.save(User.builder()
+                .username("user" + i).email("user" + i + "@example.com").password("{noop}x")
+                .roles(Set.of("USER")).enabled(true).accountNonExpired(true).accountNonLocked(true)
+                .credentialsNonExpired(true).build()))
+            .blockLast();
+        existing = users.findByUsername("user0").block();
+    }
+
+    @TearDown
+    public void tearDown() {
+        app.close();
+    }
+
+    private static String randomUsername() {
+        return "user" + ThreadLocalRandom.current().nextInt(USERS);
+    }
+
+    @Benchmark
+    public User findByUsername() {
+        return users.findByUsername(randomUsername()).block();
+    }
+
+    @Benchmark
+    public User findById() {
+        return users.findById(existing.getId()).block();
+    }
+
+    @Benchmark
+    public Boolean existsByEmail() {
+        return users.existsByEmail(randomUsername() + "@example.com").block();
+    }
+
+    @Benchmark
+    public User save() {
+        return users.save(existing).block();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CONCURRENCY)
+    public Long findByUsernameConcurrent() {
+        return Flux.range(0, CONCURRENCY)
+            .flatMap(i -> users.findByUsername(randomUsername()), CONCURRENCY)
+            .count()
+            .block();
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.reactive.security;
+
+import com.example.reactive.config.JwtProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-request authentication path: header to authentication token, then token to
+ * authenticated principal, with the verified-claims cache on (steady state: hits) or off.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthenticationBenchmark {
+
+    @Param({"true", "false"})
+    public boolean cache;
+
+    private JwtServerAuthenticationConverter converter;
+    private JwtAuthenticationManager authenticationManager;
+    private MockServerWebExchange exchange;
+    private Authentication bearer;
+
+    @Setup
+    public void setup() {
+        var props = BenchmarkTokens.properties(JwtProperties.Verifier.HMAC, cache);
+        var jwtService = BenchmarkTokens.jwtService(props);
+        String token = BenchmarkTokens.accessToken(jwtService);
+        converter = new JwtServerAuthenticationConverter(new SimpleMeterRegistry());
+        authenticationManager = new JwtAuthenticationManager(jwtService, BenchmarkTokens.claimsCache(props),
+            BenchmarkTokens.revocations(props));
+        exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/user/profile")
+            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+        bearer = new UsernamePasswordAuthenticationToken(token, token);
+    }
+
+    @Benchmark
+    public Authentication convert() {
+        return converter.convert(exchange).block();
+    }
+
+    @Benchmark
+    public Authentication authenticate() {
+        return authenticationManager.authenticate(bearer).block();
+    }
+
+    @Benchmark
+    public Authentication convertAndAuthenticate() {
+        return converter.convert(exchange).flatMap(authenticationManager::authenticate).block();
+    }
+}
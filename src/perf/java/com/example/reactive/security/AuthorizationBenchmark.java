@@ -0,0 +1,75 @@
+package com.example.reactive.security;
+
+import com.example.reactive.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.web.server.authorization.AuthorizationContext;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/** Authorization decisions for an already authenticated request, and building a user's authorities. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthorizationBenchmark {
+
+    private final CustomReactiveAuthorizationManager adminManager = new CustomReactiveAuthorizationManager();
+    private final ResourceBasedAuthorizationManager resourceManager = new ResourceBasedAuthorizationManager();
+
+    private Mono<Authentication> admin;
+    private Mono<Authentication> user;
+    private AuthorizationContext adminContext;
+    private AuthorizationContext ownResourceContext;
+    private User entity;
+
+    @Setup
+    public void setup() {
+        admin = Mono.just(new RoleSetAuthentication("admin", "token",
+            RoleRegistry.of(RoleRegistry.ROLE_ADMIN, RoleRegistry.ROLE_USER)));
+        user = Mono.just(new RoleSetAuthentication("alice", "token", RoleRegistry.of(RoleRegistry.ROLE_USER)));
+        adminContext = new AuthorizationContext(MockServerWebExchange.from(MockServerHttpRequest.get("/api/admin/users")));
+        ownResourceContext = new AuthorizationContext(
+            MockServerWebExchange.from(MockServerHttpRequest.get("/api/user/alice")), Map.of("id", "alice"));
+        entity = User.builder().username("alice").roles(Set.of("USER", "ADMIN")).build();
+    }
+
+    @Benchmark
+    public AuthorizationResult adminGranted() {
+        return adminManager.authorize(admin, adminContext).block();
+    }
+
+    @Benchmark
+    public AuthorizationResult adminDenied() {
+        return adminManager.authorize(user, adminContext).block();
+    }
+
+    @Benchmark
+    public AuthorizationResult ownResource() {
+        return resourceManager.authorize(user, ownResourceContext).block();
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> userAuthorities() {
+        return entity.getAuthorities();
+    }
+}
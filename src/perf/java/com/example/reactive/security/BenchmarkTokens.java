@@ -0,0 +1,79 @@
+package com.example.reactive.security;
+
+import com.example.reactive.config.JwtProperties;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/** Services and tokens shaped like the application's, without a Spring context. */
+final class BenchmarkTokens {
+
+    static final String SECRET = "mySecretKeyThatShouldBeAtLeast256BitsLongForHS256AlgorithmSecurityAndShouldBeStoredSecurely";
+
+    private BenchmarkTokens() {
+    }
+
+    static JwtProperties properties(JwtProperties.Verifier verifier, boolean cache) {
+        var props = new JwtProperties();
+        props.setSecret(SECRET);
+        props.setExpiration(86_400_000L);
+        props.setRefreshExpiration(604_800_000L);
+        props.setIssuer("reactive-security-demo");
+        props.setVerifier(verifier);
+        props.getCache().setEnabled(cache);
+        return props;
+    }
+
+    static JwtService jwtService(JwtProperties props) {
+        var keyRing = new JwtKeyRing(props, event -> { });
+        keyRing.load();
+        var service = new JwtService(props, keyRing, new SimpleMeterRegistry());
+        service.init();
+        return service;
+    }
+
+    static JwtClaimsCache claimsCache(JwtProperties props) {
+        return new JwtClaimsCache(props, new SimpleMeterRegistry());
+    }
+
+    /** Empty revocation list; the bloom filter answers every check, as for nearly all real requests. */
+    static TokenRevocationList revocations(JwtProperties props) {
+        return new TokenRevocationList(null, props, new SimpleMeterRegistry());
+    }
+
+    static Authentication user() {
+        return new UsernamePasswordAuthenticationToken("alice", null,
+            RoleRegistry.of(RoleRegistry.ROLE_USER).authorities());
+    }
+
+    static String accessToken(JwtService service) {
+        return service.generateToken(user()).block();
+    }
+
+    /** Correctly signed, but expired an hour ago (well beyond the clock skew). */
+    static String expiredToken() {
+        Instant now = Instant.now();
+        return Jwts.builder()
+            .subject("alice")
+            .claims(Map.of("roles", List.of("ROLE_USER"), "type", "access"))
+            .issuer("reactive-security-demo")
+            .issuedAt(Date.from(now.minusSeconds(7200)))
+            .expiration(Date.from(now.minusSeconds(3600)))
+            .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)), Jwts.SIG.HS256)
+            .compact();
+    }
+
+    /** A valid token with one signature character changed. */
+    static String tamperedToken(String token) {
+        char last = token.charAt(token.length() - 2);
+        return token.substring(0, token.length() - 2) + (last == 'A' ? 'B' : 'A') + token.charAt(token.length() - 1);
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.reactive.security;
+
+import com.example.reactive.config.JwtProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.Authentication;
+
+import java.util.concurrent.TimeUnit;
+
+/** Token signing and verification, per verifier engine. Rejections are returned, not thrown out of the benchmark. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    @Param({"HMAC", "JJWT"})
+    public JwtProperties.Verifier verifier;
+
+    private JwtService jwtService;
+    private Authentication user;
+    private String valid;
+    private String expired;
+    private String tampered;
+
+    @Setup
+    public void setup() {
+        jwtService = BenchmarkTokens.jwtService(BenchmarkTokens.properties(verifier, false));
+        user = BenchmarkTokens.user();
+        valid = BenchmarkTokens.accessToken(jwtService);
+        expired = BenchmarkTokens.expiredToken();
+        tampered = BenchmarkTokens.tamperedToken(valid);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(user).block();
+    }
+
+    @Benchmark
+    public TokenClaims validateValid() {
+        return jwtService.validateAndGetClaims(valid).block();
+    }
+
+    @Benchmark
+    public Object validateExpired() {
+        return rejection(expired);
+    }
+
+    @Benchmark
+    public Object validateTampered() {
+        return rejection(tampered);
+    }
+
+    private Object rejection(String token) {
+        try {
+            return jwtService.validateAndGetClaims(token).block();
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.reactive.security;
+
+import com.example.reactive.config.SecurityConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.authorization.ReactiveAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.server.authorization.AuthorizationContext;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Route authorization through the compiled {@link RouteAuthorizationTable} vs the sequential matcher chain it
+ * replaced ({@link BaselineRouteRules}); RouteAuthorizationTableTest checks that both decide alike.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RouteAuthorizationBenchmark {
+
+    @Param({"/api/user/profile", "/api/user/5", "/api/admin/users", "/api/other"})
+    public String path;
+
+    private RouteAuthorizationTable table;
+    private ReactiveAuthorizationManager<ServerWebExchange> chain;
+    private Mono<Authentication> user;
+    private ServerWebExchange exchange;
+    private AuthorizationContext context;
+
+    @Setup
+    public void setup() {
+        table = SecurityConfig.authorizationRules(new CustomReactiveAuthorizationManager(),
+            new ResourceBasedAuthorizationManager(), new SimpleMeterRegistry()).build();
+        chain = BaselineRouteRules.matcherChain(new CustomReactiveAuthorizationManager(),
+            new ResourceBasedAuthorizationManager());
+
+        user = Mono.just(new RoleSetAuthentication("5", "token", RoleRegistry.of(RoleRegistry.ROLE_USER)));
+        exchange = MockServerWebExchange.from(MockServerHttpRequest.get(path));
+        context = new AuthorizationContext(exchange);
+    }
+
+    @Benchmark
+    public AuthorizationResult matcherChain() {
+        return chain.authorize(user, exchange).block();
+    }
+
+    @Benchmark
+    public AuthorizationResult compiledTable() {
+        return table.authorize(user, context).block();
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.reactive.diagnostics;
+
+import com.example.reactive.model.JwtResponse;
+import com.example.reactive.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Calls every endpoint against the app running with BlockHound in strict mode, so a blocking call on an event
+ * loop both fails the request and shows up in {@code eventloop.blocking.calls}, which must stay empty.
+ */
+@AutoConfigureObservability(tracing = false)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "diagnostics.blocking.enabled=true",
+    "diagnostics.blocking.strict=true",
+    "logging.level.org.springframework.security=INFO",
+    "logging.level.org.springframework.web.reactive=INFO",
+    "logging.level.reactor.netty.http.server=INFO"
+})
+class NoBlockingOnEventLoopTest {
+
+    private static final String PASSWORD = "Secret123!";
+    private static final AtomicInteger USERS = new AtomicInteger();
+
+    @Autowired
+    private WebTestClient client;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void slowHashingIsNotATimeout() {
+        client = client.mutate().responseTimeout(Duration.ofSeconds(30)).build();
+    }
+
+    @AfterEach
+    void nothingBlocked() {
+        Map<String, Double> calls = meterRegistry.find("eventloop.blocking.calls").counters().stream()
+            .collect(Collectors.toMap(c -> c.getId().getTags().toString(), Counter::count));
+        assertThat(calls).as("blocking calls on event loops").isEmpty();
+    }
+
+    @Test
+    void authEndpoints() {
+        String username = signup();
+        JwtResponse tokens = login(username, PASSWORD);
+
+        client.post().uri("/api/auth/login")
+            .bodyValue(Map.of("username", username, "password", "wrong-" + PASSWORD))
+            .exchange()
+            .expectStatus().isUnauthorized();
+        client.post().uri("/api/auth/refresh")
+            .bodyValue(Map.of("refreshToken", tokens.getRefreshToken()))
+            .exchange()
+            .expectStatus().isOk();
+        client.post().uri("/api/auth/signup")
+            .bodyValue(Map.of("username", username, "email", username + "@example.com", "password", PASSWORD))
+            .exchange()
+            .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void userEndpoints() {
+        String username = signup();
+        String token = login(username, PASSWORD).getToken();
+        User me = client.get().uri("/api/user/profile").headers(h -> h.setBearerAuth(token))
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(User.class).returnResult().getResponseBody();
+
+        client.put().uri("/api/user/profile/{id}", me.getId()).headers(h -> h.setBearerAuth(token))
+            .bodyValue(Map.of("username", username, "email", "new-" + username + "@example.com"))
+            .exchange()
+            .expectStatus().isOk();
+        client.put().uri("/api/user/profile/{id}", 1).headers(h -> h.setBearerAuth(token))
+            .bodyValue(Map.of("username", username, "email", "other-" + username + "@example.com"))
+            .exchange()
+            .expectStatus().isForbidden();
+        client.get().uri("/api/user/{id}", 1).headers(h -> h.setBearerAuth(token))
+            .exchange()
+            .expectStatus().isForbidden();
+        client.delete().uri("/api/user/{id}", me.getId()).headers(h -> h.setBearerAuth(token))
+            .exchange()
+            .expectStatus().isForbidden();
+        client.get().uri("/api/user/secure-data").headers(h -> h.setBearerAuth(token))
+            .exchange()
+            .expectStatus().isOk();
+        client.get().uri("/api/admin/users").headers(h -> h.setBearerAuth(token))
+            .exchange()
+            .expectStatus().isForbidden();
+        client.get().uri("/api/user/profile")
+            .exchange()
+            .expectStatus().isUnauthorized();
+        client.get().uri("/api/user/profile").headers(h -> h.setBearerAuth(token + "x"))
+            .exchange()
+            .expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void adminEndpoints() {
+        String admin = login("admin", "password").getToken();
+        String username = signup();
+        JwtResponse user = login(username, PASSWORD);
+        long id = client.get().uri("/api/user/profile").headers(h -> h.setBearerAuth(user.getToken()))
+            .exchange()
+            .expectBody(User.class).returnResult().getResponseBody().getId();
+
+        client.get().uri("/api/admin/users?size=2").headers(h -> h.setBearerAuth(admin))
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().exists("X-Page-Number");
+        client.get().uri("/api/admin/users").headers(h -> h.setBearerAuth(admin))
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus().isOk();
+        client.get().uri("/api/admin/users/by-role/{role}", "USER").headers(h -> h.setBearerAuth(admin))
+            .exchange()
+            .expectStatus().isOk();
+        client.get().uri("/api/admin/users/{id}", id).headers(h -> h.setBearerAuth(admin))
+            .exchange()
+            .expectStatus().isOk();
+        client.post().uri("/api/admin/tokens/revoke").headers(h -> h.setBearerAuth(admin))
+            .bodyValue(Map.of("token", user.getToken()))
+            .exchange()
+            .expectStatus().isNoContent();
+        client.get().uri("/api/user/profile").headers(h -> h.setBearerAuth(user.getToken()))
+            .exchange()
+            .expectStatus().isUnauthorized();
+        client.post().uri("/api/admin/users/{id}/revoke-tokens", id).headers(h -> h.setBearerAuth(admin))
+            .exchange()
+            .expectStatus().isNoContent();
+        client.post().uri("/api/admin/users/bulk-disable").headers(h -> h.setBearerAuth(admin))
+            .bodyValue(List.of(id))
+            .exchange()
+            .expectStatus().isOk();
+        client.post().uri("/api/admin/users/bulk-disable").headers(h -> h.setBearerAuth(admin))
+            .accept(MediaType.APPLICATION_NDJSON)
+            .bodyValue(List.of(id))
+            .exchange()
+            .expectStatus().isOk();
+        client.delete().uri("/api/admin/users/{id}", id).headers(h -> h.setBearerAuth(admin))
+            .exchange()
+            .expectStatus().isNoContent();
+    }
+
+    @Test
+    void transferEndpoints() {
+        String admin = login("admin", "password").getToken();
+        String json = "imported-json-" + USERS.incrementAndGet();
+        String csv = "imported-csv-" + USERS.incrementAndGet();
+
+        client.post().uri("/api/admin/users/import").headers(h -> h.setBearerAuth(admin))
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .accept(MediaType.APPLICATION_NDJSON)
+            .bodyValue("{\"username\":\"" + json + "\",\"email\":\"" + json + "@example.com\",\"password\":\""
+                + PASSWORD + "\"}\n")
+            .exchange()
+            .expectStatus().isOk();
+        client.post().uri("/api/admin/users/import").headers(h -> h.setBearerAuth(admin))
+            .contentType(MediaType.parseMediaType("text/csv"))
+            .accept(MediaType.APPLICATION_NDJSON)
+            .bodyValue("username,email,password\n" + csv + "," + csv + "@example.com," + PASSWORD + "\n")
+            .exchange()
+            .expectStatus().isOk();
+        client.get().uri("/api/admin/users/export").headers(h -> h.setBearerAuth(admin))
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus().isOk();
+        client.get().uri("/api/admin/users/export").headers(h -> h.setBearerAuth(admin))
+            .accept(MediaType.parseMediaType("text/csv"))
+            .exchange()
+            .expectStatus().isOk();
+    }
+
+    @Test
+    void actuatorEndpoints() {
+        String admin = login("admin", "password").getToken();
+        client.get().uri("/actuator/health")
+            .exchange()
+            .expectStatus().isOk();
+        client.get().uri("/actuator/prometheus").headers(h -> h.setBearerAuth(admin))
+            .exchange()
+            .expectStatus().isOk();
+        client.get().uri("/actuator/metrics/eventloop.task.latency").headers(h -> h.setBearerAuth(admin))
+            .exchange()
+            .expectStatus().isOk();
+    }
+
+    private String signup() {
+        String username = "user" + USERS.incrementAndGet();
+        client.post().uri("/api/auth/signup")
+            .bodyValue(Map.of("username", username, "email", username + "@example.com", "password", PASSWORD))
+            .exchange()
+            .expectStatus().isCreated();
+        return username;
+    }
+
+    private JwtResponse login(String username, String password) {
+        return client.post().uri("/api/auth/login")
+            .bodyValue(Map.of("username", username, "password", password))
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(JwtResponse.class).returnResult().getResponseBody();
+    }
+}
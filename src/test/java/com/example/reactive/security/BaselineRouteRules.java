@@ -0,0 +1,63 @@
+package com.example.reactive.security;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.security.authorization.AuthenticatedReactiveAuthorizationManager;
+import org.springframework.security.authorization.AuthorityReactiveAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.ReactiveAuthorizationManager;
+import org.springframework.security.web.server.authorization.AuthorizationContext;
+import org.springframework.security.web.server.authorization.DelegatingReactiveAuthorizationManager;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatcher;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatcherEntry;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * The {@code authorizeExchange} rules as SecurityConfig declared them before {@link RouteAuthorizationTable}:
+ * the same {@code pathMatchers(...)} in the same order, with the same managers, as a sequential chain. This is
+ * the reference the table is tested and benchmarked against; keep it as it was rather than in step with the table.
+ */
+public final class BaselineRouteRules {
+
+    private BaselineRouteRules() {
+    }
+
+    public static ReactiveAuthorizationManager<ServerWebExchange> matcherChain(
+            CustomReactiveAuthorizationManager customAuthorizationManager,
+            ResourceBasedAuthorizationManager resourceBasedAuthorizationManager) {
+        ReactiveAuthorizationManager<AuthorizationContext> permitAll =
+            (authentication, context) -> Mono.just(new AuthorizationDecision(true));
+        ReactiveAuthorizationManager<AuthorizationContext> special = (authentication, context) ->
+            authentication.map(auth -> {
+                boolean has = auth.getAuthorities().stream()
+                    .anyMatch(a -> a.getAuthority().equals("SCOPE_special"));
+                return new AuthorizationDecision(has);
+            }).defaultIfEmpty(new AuthorizationDecision(false));
+
+        return DelegatingReactiveAuthorizationManager.builder()
+            // Public
+            .add(entry(ServerWebExchangeMatchers.pathMatchers(HttpMethod.OPTIONS, "/**"), permitAll))
+            .add(entry(ServerWebExchangeMatchers.pathMatchers("/api/auth/**", "/api/public/**", "/actuator/health"),
+                permitAll))
+            // Admin
+            .add(entry(ServerWebExchangeMatchers.pathMatchers("/api/admin/**"), customAuthorizationManager))
+            // User: put the specific route BEFORE the {id} rule
+            .add(entry(ServerWebExchangeMatchers.pathMatchers("/api/user/profile"),
+                AuthorityReactiveAuthorizationManager.hasAnyRole("USER", "ADMIN")))
+            // Resource-based: only match numeric IDs so it won't grab "profile"
+            .add(entry(ServerWebExchangeMatchers.pathMatchers("/api/user/{id:\\d+}/**"),
+                resourceBasedAuthorizationManager))
+            // Fallback for any other /api/user/** endpoints
+            .add(entry(ServerWebExchangeMatchers.pathMatchers("/api/user/**"),
+                AuthorityReactiveAuthorizationManager.hasAnyRole("USER", "ADMIN")))
+            .add(entry(ServerWebExchangeMatchers.pathMatchers("/api/special/**"), special))
+            .add(entry(ServerWebExchangeMatchers.anyExchange(), AuthenticatedReactiveAuthorizationManager.authenticated()))
+            .build();
+    }
+
+    private static ServerWebExchangeMatcherEntry<ReactiveAuthorizationManager<AuthorizationContext>> entry(
+            ServerWebExchangeMatcher matcher, ReactiveAuthorizationManager<AuthorizationContext> manager) {
+        return new ServerWebExchangeMatcherEntry<>(matcher, manager);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.reactive.security;
+
+import com.example.reactive.config.SecurityConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.authorization.ReactiveAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.server.authorization.AuthorizationContext;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The compiled route table must decide exactly as the {@code pathMatchers(...)} chain it replaced, for every
+ * method, path and principal below, including the odd paths (encoded, matrix variables, doubled slashes).
+ */
+class RouteAuthorizationTableTest {
+
+    private static final List<HttpMethod> METHODS =
+        List.of(HttpMethod.GET, HttpMethod.POST, HttpMethod.DELETE, HttpMethod.OPTIONS);
+    private static final List<String> PATHS = List.of(
+        "/", "/api", "/api/", "/api/auth", "/api/auth/", "/api/auth/login", "/api/authx", "/api//auth/login",
+        "/api/public/x/y", "/actuator/health", "/actuator/health/", "/actuator/health/db", "/actuator/prometheus",
+        "/api/admin", "/api/admin/users", "/api/admin/users/5/revoke-tokens", "/API/admin/users",
+        "/api/user", "/api/user/", "/api/user/profile", "/api/user/profile/", "/api/user/profile/x",
+        "/api/user/5", "/api/user/5/", "/api/user/5/orders/7", "/api/user/05", "/api/user/5a", "/api/user/alice",
+        "/api/user/%35", "/api/user/5;v=1", "/api/user;v=1/5", "/api/user//5", "/api/user/profile;x=1",
+        "/api/special", "/api/special/x", "/api/specialx", "/other", "/api/other/5");
+    private static final Map<String, Authentication> PRINCIPALS = new LinkedHashMap<>();
+
+    static {
+        PRINCIPALS.put("anonymous", null);
+        PRINCIPALS.put("user 5", new RoleSetAuthentication("5", "t", RoleRegistry.of(RoleRegistry.ROLE_USER)));
+        PRINCIPALS.put("user 05", new RoleSetAuthentication("05", "t", RoleRegistry.of(RoleRegistry.ROLE_USER)));
+        PRINCIPALS.put("admin", new RoleSetAuthentication("admin", "t", RoleRegistry.of(RoleRegistry.ROLE_ADMIN)));
+        PRINCIPALS.put("special", new RoleSetAuthentication("s", "t", RoleRegistry.of(RoleRegistry.SCOPE_SPECIAL)));
+        PRINCIPALS.put("no roles", new RoleSetAuthentication("5", "t", RoleRegistry.of()));
+    }
+
+    private static final RouteAuthorizationTable TABLE = SecurityConfig.authorizationRules(
+        new CustomReactiveAuthorizationManager(), new ResourceBasedAuthorizationManager(), new SimpleMeterRegistry())
+        .build();
+    private static final ReactiveAuthorizationManager<ServerWebExchange> CHAIN = BaselineRouteRules.matcherChain(
+        new CustomReactiveAuthorizationManager(), new ResourceBasedAuthorizationManager());
+
+    static Stream<Arguments> requests() {
+        return METHODS.stream().flatMap(method -> PATHS.stream().flatMap(path -> PRINCIPALS.keySet().stream()
+            .map(principal -> Arguments.of(method, path, principal))));
+    }
+
+    @ParameterizedTest(name = "{0} {1} as {2}")
+    @MethodSource("requests")
+    void decidesLikeTheMatcherChain(HttpMethod method, String path, String principal) {
+        var exchange = MockServerWebExchange.from(MockServerHttpRequest.method(method, path));
+        Mono<Authentication> authentication = Mono.justOrEmpty(PRINCIPALS.get(principal));
+
+        boolean expected = granted(CHAIN.authorize(authentication, exchange));
+        boolean actual = granted(TABLE.authorize(authentication, new AuthorizationContext(exchange)));
+
+        assertThat(actual).as("table decision (chain says %s)", expected).isEqualTo(expected);
+    }
+
+    private static boolean granted(Mono<AuthorizationResult> result) {
+        AuthorizationResult r = result.block();
+        return r != null && r.isGranted();
+    }
+}